@@ -1,32 +1,86 @@
 package com.encoder;
 
+import com.encoder.core.AnalogEncoder;
+import com.encoder.core.AnalogLineEncoder;
+import com.encoder.core.AudioFileEncoder;
+import com.encoder.core.DeltaModulator;
 import com.encoder.core.LineEncoder;
 import com.encoder.core.LineEncoder.Scheme;
 import com.encoder.core.PalindromeFinder;
-import com.encoder.core.Scrambler;
+import com.encoder.core.PcmEncoder;
+import com.encoder.core.ScrambledAmiEncoder;
+import com.encoder.core.StreamingScrambler;
 import com.encoder.graphics.OGLSignalPlotter;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class OGLMain {
+
+    // Samples shown in the plot; a WAV file is encoded in full on top of that
+    private static final int PREVIEW_SAMPLES = 32;
+    private static final int SINE_SAMPLES_PER_PERIOD = 16;
+    private static final double SINE_AMPLITUDE = 0.9;
+    // Audio is not oversampled for DM, so it gets a small fixed step
+    private static final double AUDIO_DM_STEP = 1.0 / 64;
+
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
 
         System.out.println("--- Digital Line Encoding Simulator ---");
         System.out.println("Select input type:");
         System.out.println("1. Digital Input (Provide a binary string)");
-        System.out.println("2. Analog Input (PCM/DM) [Not Implemented]");
+        System.out.println("2. Analog Input (PCM/DM)");
         int inputType = getIntInput(scanner, 1, 2);
 
         String digitalData = "";
+        int technique = 0;
+        int bitsPerSample = 1;
+        Path wavFile = null;
 
         if (inputType == 1) {
             System.out.println("Enter your digital data stream (e.g., 010011000000001):");
             digitalData = scanner.next();
         } else {
-            System.out.println("PCM/DM is not implemented. Please enter a digital string to proceed:");
-            digitalData = scanner.next();
+            System.out.println("Select analog technique:");
+            System.out.println("1. PCM (uniform)");
+            System.out.println("2. PCM (mu-law)");
+            System.out.println("3. PCM (A-law)");
+            System.out.println("4. Delta Modulation");
+            System.out.println("5. Adaptive Delta Modulation");
+            technique = getIntInput(scanner, 1, 5);
+            if (technique <= 3) {
+                System.out.println("Bits per sample (1-" + PcmEncoder.MAX_BITS + "):");
+                bitsPerSample = getIntInput(scanner, 1, PcmEncoder.MAX_BITS);
+            }
+
+            System.out.println("Enter a WAV file to encode, or 'sine' for a test tone:");
+            String source = scanner.next();
+            double[] samples = new double[PREVIEW_SAMPLES];
+            int sampleCount;
+            double step;
+            if (source.equalsIgnoreCase("sine")) {
+                for (int i = 0; i < PREVIEW_SAMPLES; i++) {
+                    samples[i] = SINE_AMPLITUDE * Math.sin(2 * Math.PI * i / SINE_SAMPLES_PER_PERIOD);
+                }
+                sampleCount = PREVIEW_SAMPLES;
+                // A little above the steepest slope per sample, so DM does not overload
+                step = 1.25 * SINE_AMPLITUDE * 2 * Math.PI / SINE_SAMPLES_PER_PERIOD;
+            } else {
+                wavFile = Paths.get(source);
+                try {
+                    sampleCount = AudioFileEncoder.read(wavFile, AudioFileEncoder.readWavFormat(wavFile), 0, samples, PREVIEW_SAMPLES);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Cannot read " + source + ": " + e.getMessage());
+                    scanner.close();
+                    return;
+                }
+                step = AUDIO_DM_STEP;
+            }
+            digitalData = toBits(samples, sampleCount, analogEncoder(technique, bitsPerSample, step));
+            System.out.println("First " + sampleCount + " samples as bits: " + digitalData);
         }
 
         // --- Line Encoding ---
@@ -40,8 +94,8 @@ public class OGLMain {
 
         Scheme selectedScheme = null;
         String schemeName = "";
+        StreamingScrambler.Mode scrambling = null;
         String scrambledData = "";
-        String dataForEncoding = digitalData;
 
         switch (schemeChoice) {
             case 1: selectedScheme = Scheme.NRZ_L; schemeName = "NRZ-L"; break;
@@ -59,17 +113,28 @@ public class OGLMain {
                     int scrambleType = getIntInput(scanner, 1, 2);
                     
                     if (scrambleType == 1) {
-                        scrambledData = Scrambler.b8zs(digitalData);
+                        scrambling = StreamingScrambler.Mode.B8ZS;
                         schemeName = "AMI with B8ZS";
                     } else {
-                        scrambledData = Scrambler.hdb3(digitalData);
+                        scrambling = StreamingScrambler.Mode.HDB3;
                         schemeName = "AMI with HDB3";
                     }
-                    dataForEncoding = scrambledData; // Use scrambled data for AMI
                 }
                 break;
         }
 
+        // --- Encoding ---
+        byte[] symbols = new byte[LineEncoder.encodedLength(digitalData.length(), selectedScheme)];
+        int symbolCount;
+        if (scrambling != null) {
+            // Scramble and AMI-encode in one pass, keeping the text form for display
+            StringBuilder scrambledText = new StringBuilder(digitalData.length());
+            symbolCount = ScrambledAmiEncoder.encode(digitalData, scrambling, symbols, 0, scrambledText);
+            scrambledData = scrambledText.toString();
+        } else {
+            symbolCount = LineEncoder.encode(digitalData, selectedScheme, symbols, 0);
+        }
+
         // --- Process and Output ---
         System.out.println("\n--- Results ---");
         System.out.println("Original Data: " + digitalData);
@@ -81,16 +146,56 @@ public class OGLMain {
         String longestPalindrome = PalindromeFinder.findLongestPalindrome(digitalData);
         System.out.println("Longest Palindrome: " + longestPalindrome);
 
-        // --- Encoding and Plotting ---
-        List<Double> signalLevels = LineEncoder.encode(dataForEncoding, selectedScheme);
+        // A WAV file is streamed through the same pipeline in full
+        if (wavFile != null) {
+            AnalogLineEncoder encoder = new AnalogLineEncoder(analogEncoder(technique, bitsPerSample, AUDIO_DM_STEP), selectedScheme, scrambling);
+            try {
+                AudioFileEncoder.Format format = AudioFileEncoder.readWavFormat(wavFile);
+                long start = System.nanoTime();
+                long total = AudioFileEncoder.encode(wavFile, format, encoder, (block, offset, length) -> { });
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Encoded %,d samples (%.1f s of audio) into %,d symbols in %.3f s%n",
+                        format.getFrameCount(), (double) format.getFrameCount() / format.getSampleRate(), total, seconds);
+            } catch (IOException e) {
+                System.out.println("Cannot encode " + wavFile + ": " + e.getMessage());
+            }
+        }
+
+        // --- Plotting ---
         System.out.println("\nGenerating plot for: " + schemeName);
         
-        // Launch the JOGL window
-        OGLSignalPlotter.plot(signalLevels, schemeName + " | " + digitalData);
+        // Launch the JOGL window; it only redraws when exposed or resized, which the
+        // frame metrics printed on exit with -Dcom.encoder.frameMetrics=true show
+        final OGLSignalPlotter plotter = OGLSignalPlotter.plot(symbols, symbolCount, schemeName + " | " + digitalData);
+        if (plotter.getFrameMetrics().isEnabled()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println("Plot: " + plotter.getFrameMetrics())));
+        }
 
         scanner.close();
     }
 
+    private static AnalogEncoder analogEncoder(int technique, int bitsPerSample, double step) {
+        switch (technique) {
+            case 1: return new PcmEncoder(bitsPerSample, PcmEncoder.Companding.UNIFORM);
+            case 2: return new PcmEncoder(bitsPerSample, PcmEncoder.Companding.MU_LAW);
+            case 3: return new PcmEncoder(bitsPerSample, PcmEncoder.Companding.A_LAW);
+            case 4: return new DeltaModulator(step, false);
+            default: return new DeltaModulator(step / 4, true);
+        }
+    }
+
+    // The bitstream of count samples as '0'/'1' text
+    private static String toBits(double[] samples, int count, AnalogEncoder encoder) {
+        byte[] packed = new byte[encoder.maxPackedLength(count)];
+        int bytes = encoder.encode(samples, 0, count, packed, 0);
+        int tailBits = encoder.flush(packed, bytes);
+        StringBuilder bits = new StringBuilder(8 * bytes + tailBits);
+        for (int i = 0; i < 8 * bytes + tailBits; i++) {
+            bits.append(((packed[i / 8] >>> (7 - i % 8)) & 1) != 0 ? '1' : '0');
+        }
+        return bits.toString();
+    }
+
     // Helper for robust int input
     private static int getIntInput(Scanner scanner, int min, int max) {
         int choice;
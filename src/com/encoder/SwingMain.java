@@ -1,17 +1,34 @@
 package com.encoder;
 
+import com.encoder.core.AnalogEncoder;
+import com.encoder.core.AnalogLineEncoder;
+import com.encoder.core.AudioFileEncoder;
+import com.encoder.core.ChannelFilter;
+import com.encoder.core.DeltaModulator;
+import com.encoder.core.EyeDiagram;
+import com.encoder.core.JitterChannel;
 import com.encoder.core.LineEncoder;
 import com.encoder.core.LineEncoder.Scheme;
-import com.encoder.core.PalindromeFinder;
-import com.encoder.core.Scrambler;
+import com.encoder.core.Palindrome;
+import com.encoder.core.PalindromeTree;
+import com.encoder.core.PcmEncoder;
+import com.encoder.core.ScrambledAmiEncoder;
+import com.encoder.core.SignalStatistics;
+import com.encoder.core.StreamingEncoder;
+import com.encoder.core.StreamingScrambler;
+import com.encoder.core.WelchPsd;
+import com.encoder.graphics.EyeDiagramPanel;
 import com.encoder.graphics.SignalChartPanel; // This is the new Swing panel
+import com.encoder.graphics.SummaryPyramid;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A Swing-based UI for the Digital Line Encoding Simulator.
@@ -23,11 +40,77 @@ public class SwingMain {
     private JTextField dataField;
     private JComboBox<String> schemeComboBox;
     private JComboBox<String> scrambleComboBox;
+    private JComboBox<String> channelComboBox;
     private JLabel scrambleLabel;
     private JButton generateButton;
+    private JProgressBar digitalProgress;
     private JTextArea resultsArea;
     private SignalChartPanel digitalChartPanel;
     private SignalChartPanel analogChartPanel;
+    private SignalChartPanel analogDigitalChartPanel;
+    private JComboBox<String> analogTechniqueComboBox;
+    private JComboBox<String> analogSchemeComboBox;
+    private JTextField bitsPerSampleField;
+    private JTextField samplesPerPeriodField;
+    private JButton analogFileButton;
+    private JLabel analogStatus;
+    private JTextField spectrumBitsField;
+    private JComboBox<String> spectrumSchemeComboBox;
+    private JComboBox<String> spectrumChannelComboBox;
+    private JButton spectrumButton;
+    private JLabel spectrumStatus;
+    private SignalChartPanel spectrumChartPanel;
+    private JTextField eyeUisField;
+    private JComboBox<String> eyeSchemeComboBox;
+    private JComboBox<String> eyeChannelComboBox;
+    private JTextField randomJitterField;
+    private JTextField periodicJitterField;
+    private JTextField noiseField;
+    private JButton eyeButton;
+    private JLabel eyeStatus;
+    private EyeDiagramPanel eyeDiagramPanel;
+
+    private static final int TOP_PALINDROMES = 3;
+    // Bits per chunk of the digital pipeline, and about how many plot updates a long input gets
+    private static final int DIGITAL_CHUNK_BITS = 1 << 16;
+    private static final int DIGITAL_UPDATES = 16;
+
+    // Analog tab: the sine test tone, and the first samples of a file shown after encoding it
+    private static final String[] ANALOG_TECHNIQUES = {"PCM (uniform)", "PCM (mu-law)", "PCM (A-law)", "Delta Modulation", "Adaptive DM"};
+    private static final int ANALOG_PERIODS = 2;
+    private static final int ANALOG_REFERENCE_OVERSAMPLING = 8;
+    private static final double SINE_AMPLITUDE = 0.9;
+    private static final int ANALOG_FILE_PREVIEW = 64;
+    private static final double AUDIO_DM_STEP = 1.0 / 64;
+
+    // Welch PSD settings: FFT size, oversampling per symbol and shown range in bit rates
+    private static final int SPECTRUM_SEGMENT = 1024;
+    private static final int SPECTRUM_OVERSAMPLING = 8;
+    private static final double SPECTRUM_MAX_FREQUENCY = 4.0;
+    private static final int SPECTRUM_BLOCK_BYTES = 1024;
+
+    // Eye diagram settings: histogram shape, level range, and fixed channel parameters
+    private static final int EYE_COLUMNS = 32;
+    private static final int EYE_ROWS = 128;
+    private static final double EYE_LEVEL_RANGE = 1.5;
+    private static final double EYE_PJ_PERIOD = 100.0;
+    private static final double EYE_DCD = 0.02;
+    private static final double EYE_RISE_TIME = 0.2;
+
+    // Channel filters: the bandwidth is in bit rates, so every scheme sees the same cable
+    private static final String[] CHANNELS = {"Ideal", "RC Low-Pass", "Raised Cosine"};
+    private static final double CHANNEL_BANDWIDTH = 0.75;
+    private static final double RAISED_COSINE_ROLLOFF = 0.35;
+    private static final int RAISED_COSINE_SPAN = 8;
+    private static final int DISPLAY_OVERSAMPLING = 16;
+    // Samples filtered at a time for display
+    private static final int FILTER_BLOCK = 1 << 14;
+
+    // Palindrome index over the data of the last Generate, extended when the data only grows
+    private final PalindromeTree palindromes = new PalindromeTree(TOP_PALINDROMES);
+    private String indexedData = ""; // Guarded by palindromes
+    private SwingWorker<String, Integer> digitalWorker;
+    private SwingWorker<String, Integer> palindromeWorker;
 
     public static void main(String[] args) {
         // Run the UI on the Event Dispatch Thread (EDT)
@@ -50,8 +133,14 @@ public class SwingMain {
         // --- Tab 1: Digital Line Encoding ---
         tabbedPane.addTab("Digital Line Encoding", createDigitalPanel());
 
-        // --- Tab 2: Analog Signal Demo ---
-        tabbedPane.addTab("Analog Signals (Demo)", createAnalogPanel());
+        // --- Tab 2: Analog Signals (PCM / DM) ---
+        tabbedPane.addTab("Analog Signals (PCM/DM)", createAnalogPanel());
+
+        // --- Tab 3: Spectrum ---
+        tabbedPane.addTab("Spectrum", createSpectrumPanel());
+
+        // --- Tab 4: Eye Diagram ---
+        tabbedPane.addTab("Eye Diagram", createEyePanel());
 
         frame.getContentPane().add(tabbedPane);
         frame.setVisible(true);
@@ -104,14 +193,30 @@ public class SwingMain {
         scrambleLabel.setVisible(false);
         scrambleComboBox.setVisible(false);
 
+        // Channel
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        inputPanel.add(new JLabel("Channel:"), gbc);
+
+        gbc.gridx = 1;
+        channelComboBox = new JComboBox<>(CHANNELS);
+        inputPanel.add(channelComboBox, gbc);
+
         // Generate Button
         gbc.gridx = 1;
-        gbc.gridy = 3;
+        gbc.gridy = 4;
         gbc.fill = GridBagConstraints.NONE;
         gbc.anchor = GridBagConstraints.EAST;
         generateButton = new JButton("Generate Plot");
         inputPanel.add(generateButton, gbc);
 
+        gbc.gridx = 0;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        digitalProgress = new JProgressBar(0, 100);
+        digitalProgress.setStringPainted(true);
+        digitalProgress.setString(" ");
+        inputPanel.add(digitalProgress, gbc);
+
         mainPanel.add(inputPanel, BorderLayout.NORTH);
 
         // --- Center Panel (Results and Chart) ---
@@ -158,50 +263,480 @@ public class SwingMain {
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        JPanel infoPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-        infoPanel.add(new JLabel("Analog signal generation (PCM, DM) logic was not implemented in the provided project files."));
+        JPanel inputPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        inputPanel.add(new JLabel("Technique:"));
+        analogTechniqueComboBox = new JComboBox<>(ANALOG_TECHNIQUES);
+        inputPanel.add(analogTechniqueComboBox);
+
+        inputPanel.add(new JLabel("Bits/Sample:"));
+        bitsPerSampleField = new JTextField("3", 3);
+        inputPanel.add(bitsPerSampleField);
 
-        JButton demoButton = new JButton("Show Analog Demo (Sine Wave)");
-        infoPanel.add(demoButton);
+        inputPanel.add(new JLabel("Samples/Period:"));
+        samplesPerPeriodField = new JTextField("16", 4);
+        inputPanel.add(samplesPerPeriodField);
 
-        mainPanel.add(infoPanel, BorderLayout.NORTH);
+        inputPanel.add(new JLabel("Encoding Scheme:"));
+        String[] schemes = {"NRZ-L", "NRZ-I", "Manchester", "Differential Manchester", "AMI"};
+        analogSchemeComboBox = new JComboBox<>(schemes);
+        inputPanel.add(analogSchemeComboBox);
+
+        JButton sineButton = new JButton("Encode Sine Wave");
+        inputPanel.add(sineButton);
+        analogFileButton = new JButton("Encode WAV File...");
+        inputPanel.add(analogFileButton);
+        analogStatus = new JLabel(" ");
+        inputPanel.add(analogStatus);
+
+        mainPanel.add(inputPanel, BorderLayout.NORTH);
 
+        JPanel centerPanel = new JPanel(new GridLayout(2, 1, 10, 10));
         analogChartPanel = new SignalChartPanel();
-        analogChartPanel.setBorder(BorderFactory.createTitledBorder("Analog Signal (Demo)"));
-        mainPanel.add(analogChartPanel, BorderLayout.CENTER);
+        analogChartPanel.setBorder(BorderFactory.createTitledBorder("Input and Reconstruction"));
+        centerPanel.add(analogChartPanel);
+        analogDigitalChartPanel = new SignalChartPanel();
+        analogDigitalChartPanel.setBorder(BorderFactory.createTitledBorder("Line-Encoded Bitstream"));
+        centerPanel.add(analogDigitalChartPanel);
+        mainPanel.add(centerPanel, BorderLayout.CENTER);
 
-        demoButton.addActionListener(new ActionListener() {
+        sineButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                // Generate a demo sine wave
-                List<Double> sineWave = new ArrayList<>();
-                for (int i = 0; i < 400; i++) {
-                    sineWave.add(Math.sin(i * Math.PI / 50.0) * 1.5); // 1.5V amplitude
+                generateAnalogPlot();
+            }
+        });
+
+        analogFileButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                encodeAudioFile();
+            }
+        });
+
+        // Initial plot
+        generateAnalogPlot();
+
+        return mainPanel;
+    }
+
+    private void generateAnalogPlot() {
+        String samplesText = samplesPerPeriodField.getText().trim();
+        if (!samplesText.matches("[0-9]{1,4}") || Integer.parseInt(samplesText) < 2) {
+            JOptionPane.showMessageDialog(frame, "Please enter at least 2 samples per period.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        AnalogEncoder encoder = analogEncoder();
+        if (encoder == null) {
+            return;
+        }
+        int samplesPerPeriod = Integer.parseInt(samplesText);
+        int count = ANALOG_PERIODS * samplesPerPeriod;
+
+        double[] samples = new double[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = SINE_AMPLITUDE * Math.sin(2 * Math.PI * i / samplesPerPeriod);
+        }
+        // The continuous input, finely sampled over the same span
+        double[] reference = new double[count * ANALOG_REFERENCE_OVERSAMPLING];
+        for (int i = 0; i < reference.length; i++) {
+            reference[i] = SINE_AMPLITUDE * Math.sin(2 * Math.PI * i / (samplesPerPeriod * ANALOG_REFERENCE_OVERSAMPLING));
+        }
+        if (encoder instanceof DeltaModulator && !((DeltaModulator) encoder).isAdaptive()) {
+            // Linear DM gets a step just above the steepest slope per sample
+            encoder = new DeltaModulator(1.25 * SINE_AMPLITUDE * 2 * Math.PI / samplesPerPeriod, false);
+        }
+        showAnalog(encoder, samples, count, reference, reference.length, "Sine Wave");
+    }
+
+    // Encodes samples[0, count), shows the reconstruction over the reference and the
+    // line-encoded bits
+    private void showAnalog(AnalogEncoder encoder, double[] samples, int count, double[] reference, int referenceCount, String source) {
+        double[] levels = new double[count];
+        byte[] packed = new byte[encoder.maxPackedLength(count)];
+        int bytes = encoder.encode(samples, 0, count, packed, 0, levels, 0);
+        int bitCount = 8 * bytes + encoder.flush(packed, bytes);
+        StringBuilder bits = new StringBuilder(bitCount);
+        for (int i = 0; i < bitCount; i++) {
+            bits.append(((packed[i / 8] >>> (7 - i % 8)) & 1) != 0 ? '1' : '0');
+        }
+
+        String technique = (String) analogTechniqueComboBox.getSelectedItem();
+        String schemeName = (String) analogSchemeComboBox.getSelectedItem();
+        Scheme scheme = schemeOf(schemeName);
+        double[] symbols = new double[LineEncoder.encodedLength(bitCount, scheme)];
+        int symbolCount = LineEncoder.encode(bits, scheme, symbols, 0);
+
+        analogChartPanel.setAnalogSignal(levels, count, reference, referenceCount,
+                source + " | " + technique + ", " + encoder.getBitsPerSample() + " bit(s)/sample");
+        analogDigitalChartPanel.setDigitalSignal(symbols, symbolCount, bits.toString(), bits.toString(), schemeName);
+    }
+
+    private void encodeAudioFile() {
+        final AnalogEncoder preview = analogEncoder();
+        if (preview == null) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        final Path file = chooser.getSelectedFile().toPath();
+        final Scheme scheme = schemeOf((String) analogSchemeComboBox.getSelectedItem());
+        final AnalogEncoder streamed = analogEncoder();
+
+        analogFileButton.setEnabled(false);
+        analogStatus.setText("Encoding...");
+
+        // The whole file is streamed off the EDT; only the first samples are plotted
+        new SwingWorker<Long, Void>() {
+            private AudioFileEncoder.Format format;
+            private double[] samples = new double[ANALOG_FILE_PREVIEW];
+            private int previewCount;
+            private long elapsedNanos;
+
+            @Override
+            protected Long doInBackground() throws Exception {
+                format = AudioFileEncoder.readWavFormat(file);
+                previewCount = AudioFileEncoder.read(file, format, 0, samples, samples.length);
+                long start = System.nanoTime();
+                long symbols = AudioFileEncoder.encode(file, format, new AnalogLineEncoder(streamed, scheme, null),
+                        (block, offset, length) -> { });
+                elapsedNanos = System.nanoTime() - start;
+                return symbols;
+            }
+
+            @Override
+            protected void done() {
+                analogFileButton.setEnabled(true);
+                long symbols;
+                try {
+                    symbols = get();
+                } catch (Exception ex) {
+                    analogStatus.setText("Failed: " + ex.getCause().getMessage());
+                    return;
                 }
-                analogChartPanel.setAnalogSignal(sineWave, "Demo Sine Wave");
+                showAnalog(preview, samples, previewCount, samples, previewCount, file.getFileName().toString());
+                analogStatus.setText(String.format("%,d samples (%.1f s at %d Hz) -> %,d symbols in %.2f s",
+                        format.getFrameCount(), (double) format.getFrameCount() / format.getSampleRate(),
+                        format.getSampleRate(), symbols, elapsedNanos / 1e9));
+            }
+        }.execute();
+    }
+
+    // Encoder for the selected technique, or null after reporting bad input
+    private AnalogEncoder analogEncoder() {
+        String technique = (String) analogTechniqueComboBox.getSelectedItem();
+        switch (technique) {
+            case "Delta Modulation":
+                return new DeltaModulator(AUDIO_DM_STEP, false);
+            case "Adaptive DM":
+                return new DeltaModulator(AUDIO_DM_STEP, true);
+            default:
+                break;
+        }
+        String bitsText = bitsPerSampleField.getText().trim();
+        if (!bitsText.matches("[0-9]{1,2}") || Integer.parseInt(bitsText) < 1 || Integer.parseInt(bitsText) > PcmEncoder.MAX_BITS) {
+            JOptionPane.showMessageDialog(frame, "Please enter 1 to " + PcmEncoder.MAX_BITS + " bits per sample.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+        PcmEncoder.Companding companding = "PCM (mu-law)".equals(technique) ? PcmEncoder.Companding.MU_LAW
+                : "PCM (A-law)".equals(technique) ? PcmEncoder.Companding.A_LAW : PcmEncoder.Companding.UNIFORM;
+        return new PcmEncoder(Integer.parseInt(bitsText), companding);
+    }
+
+    private JPanel createSpectrumPanel() {
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel inputPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        inputPanel.add(new JLabel("Random Bits:"));
+        spectrumBitsField = new JTextField("10000000", 10);
+        inputPanel.add(spectrumBitsField);
+
+        inputPanel.add(new JLabel("Encoding Scheme:"));
+        String[] schemes = {"NRZ-L", "NRZ-I", "Manchester", "Differential Manchester", "AMI"};
+        spectrumSchemeComboBox = new JComboBox<>(schemes);
+        inputPanel.add(spectrumSchemeComboBox);
+        spectrumChannelComboBox = new JComboBox<>(CHANNELS);
+        inputPanel.add(spectrumChannelComboBox);
+
+        spectrumButton = new JButton("Compute Spectrum");
+        inputPanel.add(spectrumButton);
+        spectrumStatus = new JLabel(" ");
+        inputPanel.add(spectrumStatus);
+
+        mainPanel.add(inputPanel, BorderLayout.NORTH);
+
+        spectrumChartPanel = new SignalChartPanel();
+        spectrumChartPanel.setBorder(BorderFactory.createTitledBorder("Power Spectral Density (dB)"));
+        mainPanel.add(spectrumChartPanel, BorderLayout.CENTER);
+
+        spectrumButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                generateSpectrumPlot();
             }
         });
 
-        // Initial demo plot
-        demoButton.doClick();
+        return mainPanel;
+    }
+
+    private void generateSpectrumPlot() {
+        String bitsText = spectrumBitsField.getText().trim();
+        if (!bitsText.matches("[0-9]{1,12}") || Long.parseLong(bitsText) < SPECTRUM_SEGMENT) {
+            JOptionPane.showMessageDialog(frame, "Please enter a number of bits (at least " + SPECTRUM_SEGMENT + ").", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        // Bits are generated a byte at a time
+        final long bitCount = Long.parseLong(bitsText) / 8 * 8;
+        final String schemeName = (String) spectrumSchemeComboBox.getSelectedItem();
+        final Scheme scheme = schemeOf(schemeName);
+        final ChannelFilter filter = channelFilter((String) spectrumChannelComboBox.getSelectedItem(), scheme, SPECTRUM_OVERSAMPLING);
+
+        spectrumButton.setEnabled(false);
+        spectrumStatus.setText("Computing...");
+
+        // Encoding and FFTs run off the EDT; the PSD is handed back when done
+        new SwingWorker<WelchPsd, Void>() {
+            private long elapsedNanos;
+
+            @Override
+            protected WelchPsd doInBackground() {
+                long start = System.nanoTime();
+                WelchPsd psd = computeSpectrum(scheme, bitCount, filter);
+                elapsedNanos = System.nanoTime() - start;
+                return psd;
+            }
+
+            @Override
+            protected void done() {
+                spectrumButton.setEnabled(true);
+                WelchPsd psd;
+                try {
+                    psd = get();
+                } catch (Exception ex) {
+                    spectrumStatus.setText("Failed: " + ex.getCause());
+                    return;
+                }
+                int shown = Math.min(psd.binCount(), (int) (SPECTRUM_MAX_FREQUENCY / psd.binWidth()) + 1);
+                spectrumChartPanel.setSpectrum(psd.density(), shown, psd.binWidth(), schemeName + " PSD");
+                spectrumStatus.setText(String.format("%,d bits, %,d segments in %.2f s",
+                        bitCount, psd.getSegmentCount(), elapsedNanos / 1e9));
+            }
+        }.execute();
+    }
+
+    // Encodes bitCount random bits block by block and streams the symbols, through the
+    // filter if there is one, into a PSD
+    private static WelchPsd computeSpectrum(Scheme scheme, long bitCount, ChannelFilter filter) {
+        StreamingEncoder encoder = new StreamingEncoder(scheme);
+        WelchPsd psd = new WelchPsd(scheme, SPECTRUM_SEGMENT, SPECTRUM_OVERSAMPLING);
+        SplittableRandom random = new SplittableRandom(42);
+
+        byte[] packed = new byte[SPECTRUM_BLOCK_BYTES];
+        byte[] symbols = new byte[LineEncoder.encodedLength(SPECTRUM_BLOCK_BYTES * 8, scheme)];
+        double[] samples = (filter == null) ? null : new double[symbols.length * SPECTRUM_OVERSAMPLING];
+        for (long done = 0; done < bitCount; ) {
+            int bytes = (int) Math.min(SPECTRUM_BLOCK_BYTES, (bitCount - done) / 8);
+            for (int i = 0; i < bytes; i += 8) {
+                long word = random.nextLong();
+                for (int k = 0; k < 8 && i + k < bytes; k++) {
+                    packed[i + k] = (byte) (word >>> (8 * k));
+                }
+            }
+            int count = encoder.encodePacked(packed, 0, bytes, symbols, 0);
+            if (filter == null) {
+                psd.accept(symbols, 0, count);
+            } else {
+                int length = hold(symbols, count, SPECTRUM_OVERSAMPLING, samples);
+                filter.apply(samples, 0, length, samples, 0);
+                psd.acceptSamples(samples, 0, length);
+            }
+            done += 8L * bytes;
+        }
+        psd.flush();
+        return psd;
+    }
+
+    private JPanel createEyePanel() {
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel inputPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        inputPanel.add(new JLabel("UIs:"));
+        eyeUisField = new JTextField("10000000", 9);
+        inputPanel.add(eyeUisField);
+
+        String[] schemes = {"NRZ-L", "NRZ-I", "Manchester", "Differential Manchester", "AMI"};
+        eyeSchemeComboBox = new JComboBox<>(schemes);
+        inputPanel.add(eyeSchemeComboBox);
+        eyeChannelComboBox = new JComboBox<>(CHANNELS);
+        inputPanel.add(eyeChannelComboBox);
+
+        inputPanel.add(new JLabel("RJ (UI rms):"));
+        randomJitterField = new JTextField("0.02", 4);
+        inputPanel.add(randomJitterField);
+        inputPanel.add(new JLabel("PJ (UI):"));
+        periodicJitterField = new JTextField("0.05", 4);
+        inputPanel.add(periodicJitterField);
+        inputPanel.add(new JLabel("Noise (rms):"));
+        noiseField = new JTextField("0.05", 4);
+        inputPanel.add(noiseField);
+
+        eyeButton = new JButton("Simulate Eye");
+        inputPanel.add(eyeButton);
+        eyeStatus = new JLabel(" ");
+        inputPanel.add(eyeStatus);
+
+        mainPanel.add(inputPanel, BorderLayout.NORTH);
+
+        eyeDiagramPanel = new EyeDiagramPanel();
+        eyeDiagramPanel.setBorder(BorderFactory.createTitledBorder("Eye Diagram (density)"));
+        mainPanel.add(eyeDiagramPanel, BorderLayout.CENTER);
+
+        eyeButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                generateEyeDiagram();
+            }
+        });
 
         return mainPanel;
     }
 
-    private void generateDigitalPlot() {
-        String digitalData = dataField.getText().trim();
-        if (digitalData.isEmpty() || !digitalData.matches("[01]+")) {
-            JOptionPane.showMessageDialog(frame, "Please enter a valid binary string (0s and 1s only).", "Input Error", JOptionPane.ERROR_MESSAGE);
+    private void generateEyeDiagram() {
+        String uisText = eyeUisField.getText().trim();
+        double randomJitter;
+        double periodicJitter;
+        double noise;
+        try {
+            randomJitter = Double.parseDouble(randomJitterField.getText().trim());
+            periodicJitter = Double.parseDouble(periodicJitterField.getText().trim());
+            noise = Double.parseDouble(noiseField.getText().trim());
+        } catch (NumberFormatException ex) {
+            randomJitter = -1;
+            periodicJitter = -1;
+            noise = -1;
+        }
+        if (!uisText.matches("[0-9]{1,12}") || Long.parseLong(uisText) == 0
+                || randomJitter < 0 || periodicJitter < 0 || noise < 0) {
+            JOptionPane.showMessageDialog(frame, "Please enter a number of UIs and non-negative jitter and noise values.", "Input Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        final long uiCount = Long.parseLong(uisText);
+        final String schemeName = (String) eyeSchemeComboBox.getSelectedItem();
+        final Scheme scheme = schemeOf(schemeName);
+        final JitterChannel channel = new JitterChannel(EYE_COLUMNS, randomJitter, periodicJitter, EYE_PJ_PERIOD,
+                EYE_DCD, noise, EYE_RISE_TIME, System.nanoTime());
+        final ChannelFilter filter = channelFilter((String) eyeChannelComboBox.getSelectedItem(), scheme, EYE_COLUMNS);
+
+        eyeButton.setEnabled(false);
+        eyeStatus.setText("Simulating...");
+
+        // Accumulates on all cores off the EDT
+        new SwingWorker<EyeDiagram, Void>() {
+            private long elapsedNanos;
+
+            @Override
+            protected EyeDiagram doInBackground() {
+                long start = System.nanoTime();
+                EyeDiagram eye = EyeDiagram.simulate(scheme, uiCount, channel, filter, EYE_ROWS,
+                        -EYE_LEVEL_RANGE, EYE_LEVEL_RANGE, System.nanoTime(), ForkJoinPool.commonPool());
+                elapsedNanos = System.nanoTime() - start;
+                return eye;
+            }
+
+            @Override
+            protected void done() {
+                eyeButton.setEnabled(true);
+                EyeDiagram eye;
+                try {
+                    eye = get();
+                } catch (Exception ex) {
+                    eyeStatus.setText("Failed: " + ex.getCause());
+                    return;
+                }
+                eyeDiagramPanel.setEye(eye.getCounts(), eye.getMinLevel(), eye.getMaxLevel(), schemeName + " Eye");
+                eyeStatus.setText(String.format("%,d UIs in %.2f s", eye.getUiCount(), elapsedNanos / 1e9));
+            }
+        }.execute();
+    }
+
+    // Filter for a channel name at samplesPerSymbol, or null for the ideal channel
+    private static ChannelFilter channelFilter(String channel, Scheme scheme, int samplesPerSymbol) {
+        double bandwidth = CHANNEL_BANDWIDTH / LineEncoder.symbolsPerBit(scheme); // Per symbol
+        switch (channel) {
+            case "RC Low-Pass":
+                return new ChannelFilter(ChannelFilter.rcLowPass(samplesPerSymbol, bandwidth));
+            case "Raised Cosine":
+                return new ChannelFilter(ChannelFilter.raisedCosine(samplesPerSymbol, bandwidth,
+                        RAISED_COSINE_ROLLOFF, RAISED_COSINE_SPAN));
+            default:
+                return null;
+        }
+    }
+
+    // Holds each of count levels for samplesPerSymbol samples
+    private static int hold(byte[] symbols, int count, int samplesPerSymbol, double[] out) {
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            for (int k = 0; k < samplesPerSymbol; k++) {
+                out[pos++] = symbols[i];
+            }
+        }
+        return pos;
+    }
+
+    // Oversampled, filtered levels lined up with the input (the filter delay is dropped).
+    // The filter streams, so only the float result is full size.
+    private static float[] filterForDisplay(float[] levels, int count, ChannelFilter filter) {
+        int delay = filter.getDelay();
+        long total = (long) count * DISPLAY_OVERSAMPLING;
+        float[] out = new float[(int) total];
+        double[] block = new double[FILTER_BLOCK];
+        // Hold the last level while the filter catches up
+        float last = (count > 0) ? levels[count - 1] : 0;
+        int pos = 0;
+        for (long sample = 0; sample < total + delay; sample += FILTER_BLOCK) {
+            int length = (int) Math.min(FILTER_BLOCK, total + delay - sample);
+            for (int k = 0; k < length; k++) {
+                long s = sample + k;
+                block[k] = (s < total) ? levels[(int) (s / DISPLAY_OVERSAMPLING)] : last;
+            }
+            filter.apply(block, 0, length, block, 0);
+            for (int k = (int) Math.max(0, delay - sample); k < length; k++) {
+                out[pos++] = (float) block[k];
+            }
+        }
+        return out;
+    }
+
+    private static Scheme schemeOf(String name) {
+        switch (name) {
+            case "NRZ-I": return Scheme.NRZ_I;
+            case "Manchester": return Scheme.MANCHESTER;
+            case "Differential Manchester": return Scheme.DIFF_MANCHESTER;
+            case "AMI": return Scheme.AMI;
+            default: return Scheme.NRZ_L;
+        }
+    }
+
+    private void generateDigitalPlot() {
+        // A new run replaces the one in flight
+        if (digitalWorker != null) {
+            digitalWorker.cancel(true);
+        }
+        if (palindromeWorker != null) {
+            palindromeWorker.cancel(true);
+        }
 
+        final String digitalData = dataField.getText().trim();
         String selectedSchemeName = (String) schemeComboBox.getSelectedItem();
         String selectedScramble = (String) scrambleComboBox.getSelectedItem();
 
         Scheme selectedScheme = null;
+        StreamingScrambler.Mode scrambling = null;
         String plotTitle = selectedSchemeName;
-        String dataForEncoding = digitalData;
-        String scrambledData = "";
 
         switch (selectedSchemeName) {
             case "NRZ-L": selectedScheme = Scheme.NRZ_L; break;
@@ -211,36 +746,254 @@ public class SwingMain {
             case "AMI":
                 selectedScheme = Scheme.AMI;
                 if ("B8ZS".equals(selectedScramble)) {
-                    scrambledData = Scrambler.b8zs(digitalData);
-                    dataForEncoding = scrambledData;
+                    scrambling = StreamingScrambler.Mode.B8ZS;
                     plotTitle = "AMI with B8ZS";
                 } else if ("HDB3".equals(selectedScramble)) {
-                    scrambledData = Scrambler.hdb3(digitalData);
-                    dataForEncoding = scrambledData;
+                    scrambling = StreamingScrambler.Mode.HDB3;
                     plotTitle = "AMI with HDB3";
                 }
                 break;
         }
 
-        // --- Process and Output ---
-        StringBuilder results = new StringBuilder();
-        results.append("Original Data:    ").append(digitalData).append("\n");
-        if (!scrambledData.isEmpty()) {
-            results.append("Scrambled Data:   ").append(scrambledData).append("\n");
-        }
+        final Scheme scheme = selectedScheme;
+        final StreamingScrambler.Mode mode = scrambling;
+        final String title = plotTitle;
+        final String channel = (String) channelComboBox.getSelectedItem();
+        final ChannelFilter filter = channelFilter(channel, scheme, DISPLAY_OVERSAMPLING);
+
+        digitalProgress.setValue(0);
+        digitalProgress.setString("Encoding...");
+
+        // Validation, encoding and statistics run off the EDT. Every finished chunk
+        // publishes the number of levels written so far and the plot grows with them;
+        // the palindrome search follows in its own worker.
+        digitalWorker = new SwingWorker<String, Integer>() {
+            // Levels and their summary are built here, so the EDT only draws them
+            private float[] levels;
+            private SummaryPyramid pyramid;
+            private float[] filtered;
+            private SummaryPyramid filteredPyramid;
+            private SignalStatistics statistics;
+            private String scrambledData = "";
+            private boolean shown = false; // Whether the plot shows levels yet
+
+            @Override
+            protected String doInBackground() {
+                if (!isBinary(digitalData)) {
+                    return null;
+                }
+                int length = digitalData.length();
+                levels = new float[LineEncoder.encodedLength(length, scheme)];
+                pyramid = new SummaryPyramid(levels);
+                statistics = new SignalStatistics(scheme);
+                int chunkBits = Math.max(DIGITAL_CHUNK_BITS, length / DIGITAL_UPDATES);
+                int pos;
+
+                // --- Encoding ---
+                if (mode != null) {
+                    // Scramble and AMI-encode in one pass, keeping the text form for display
+                    ScrambledAmiEncoder encoder = new ScrambledAmiEncoder(mode);
+                    byte[] block = new byte[chunkBits + encoder.maxPending()];
+                    StringBuilder scrambledText = new StringBuilder(length);
+                    pos = 0;
+                    for (int from = 0; from < length; from += chunkBits) {
+                        if (isCancelled()) return null;
+                        int to = Math.min(from + chunkBits, length);
+                        pos = add(block, encoder.encode(digitalData, from, to, block, 0, scrambledText), pos);
+                        publish(pos);
+                    }
+                    pos = add(block, encoder.flush(block, 0, scrambledText), pos);
+                    scrambledData = scrambledText.toString();
+                } else {
+                    StreamingEncoder encoder = new StreamingEncoder(scheme);
+                    byte[] block = new byte[LineEncoder.encodedLength(chunkBits, scheme)];
+                    pos = 0;
+                    for (int from = 0; from < length; from += chunkBits) {
+                        if (isCancelled()) return null;
+                        int to = Math.min(from + chunkBits, length);
+                        pos = add(block, encoder.encode(digitalData.subSequence(from, to), block, 0), pos);
+                        publish(pos);
+                    }
+                }
+
+                // --- Process and Output ---
+                StringBuilder results = new StringBuilder();
+                results.append("Original Data:    ").append(digitalData).append("\n");
+                if (!scrambledData.isEmpty()) {
+                    results.append("Scrambled Data:   ").append(scrambledData).append("\n");
+                }
+
+                // Signal statistics (on the encoded levels)
+                appendStatistics(results, statistics);
+
+                if (filter != null && !isCancelled()) {
+                    filtered = filterForDisplay(levels, pos, filter);
+                    filteredPyramid = SummaryPyramid.summarize(filtered, filtered.length);
+                }
+                return results.toString();
+            }
+
+            // Appends a block of symbols to the levels, their statistics and their summary
+            private int add(byte[] symbols, int count, int pos) {
+                statistics.accept(symbols, 0, count);
+                pos = widen(symbols, count, levels, pos);
+                pyramid.extend(pos);
+                return pos;
+            }
 
-        // Longest Palindrome (on original data)
-        String longestPalindrome = PalindromeFinder.findLongestPalindrome(digitalData);
-        results.append("Longest Palindrome: ").append(longestPalindrome).append("\n");
+            @Override
+            protected void process(List<Integer> counts) {
+                if (isCancelled()) return;
+                // Only the latest count matters; the labels cover the bits encoded so far
+                int count = counts.get(counts.size() - 1);
+                String bits = digitalData.substring(0, count / LineEncoder.symbolsPerBit(scheme));
+                if (shown) {
+                    // Keeps the zoom; the new levels are already summarized
+                    digitalChartPanel.appendDigitalSignal(count, bits, bits);
+                } else {
+                    digitalChartPanel.setDigitalSignal(levels, count, pyramid, bits, bits, title);
+                    shown = true;
+                }
+                digitalProgress.setValue((int) (100L * count / levels.length));
+            }
 
-        resultsArea.setText(results.toString());
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                String results;
+                try {
+                    results = get();
+                } catch (Exception ex) {
+                    digitalProgress.setString("Failed: " + ex.getCause());
+                    return;
+                }
+                if (results == null) {
+                    digitalProgress.setString(" ");
+                    JOptionPane.showMessageDialog(frame, "Please enter a valid binary string (0s and 1s only).", "Input Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                digitalProgress.setValue(100);
+                resultsArea.setText(results);
+
+                // --- Plotting ---
+                // Pass the *original* data string for bit labeling,
+                // but the scrambled data for encoding (if AMI)
+                String dataForEncoding = scrambledData.isEmpty() ? digitalData : scrambledData;
+                if (filtered != null) {
+                    digitalChartPanel.setDigitalSignal(filtered, filtered.length, filteredPyramid, digitalData, dataForEncoding, title + " (" + channel + ")");
+                } else if (shown) {
+                    // Same levels as the partial plot, so the view stays where it is
+                    digitalChartPanel.appendDigitalSignal(levels.length, digitalData, dataForEncoding);
+                } else {
+                    digitalChartPanel.setDigitalSignal(levels, levels.length, pyramid, digitalData, dataForEncoding, title);
+                }
+                findPalindromes(digitalData);
+            }
+        };
+        digitalWorker.execute();
+    }
 
-        // --- Encoding and Plotting ---
-        List<Double> signalLevels = LineEncoder.encode(dataForEncoding, selectedScheme);
+    // Fills in the palindrome results for data once the rest of the results are shown
+    private void findPalindromes(final String digitalData) {
+        digitalProgress.setValue(0);
+        digitalProgress.setString("Finding palindromes...");
 
-        // Pass data to the panel and repaint
-        // Pass the *original* data string for bit labeling,
-        // but the scrambled data for encoding (if AMI)
-        digitalChartPanel.setDigitalSignal(signalLevels, digitalData, dataForEncoding, plotTitle);
+        palindromeWorker = new SwingWorker<String, Integer>() {
+            @Override
+            protected String doInBackground() {
+                // A cancelled search may still be finishing a chunk, so the tree is
+                // only touched under its lock
+                synchronized (palindromes) {
+                    // Only index what was added since the last run
+                    if (!digitalData.startsWith(indexedData)) {
+                        palindromes.reset();
+                        indexedData = "";
+                    }
+                    for (int from = indexedData.length(); from < digitalData.length(); from += DIGITAL_CHUNK_BITS) {
+                        if (isCancelled()) {
+                            // Keep what is indexed; a rerun on the same data picks up from here
+                            indexedData = digitalData.substring(0, from);
+                            return null;
+                        }
+                        int to = Math.min(from + DIGITAL_CHUNK_BITS, digitalData.length());
+                        palindromes.append(digitalData, from, to);
+                        publish((int) (100L * to / digitalData.length()));
+                    }
+                    indexedData = digitalData;
+
+                    StringBuilder results = new StringBuilder();
+                    Palindrome longestPalindrome = palindromes.longest();
+                    results.append("Longest Palindrome: ").append(longestPalindrome.substring(digitalData))
+                            .append(" at ").append(longestPalindrome.getStart()).append("\n");
+                    results.append("Distinct Palindromes: ").append(palindromes.distinctCount()).append("\n");
+                    results.append("Top ").append(TOP_PALINDROMES).append(" Palindromes:");
+                    for (Palindrome palindrome : palindromes.topK(TOP_PALINDROMES)) {
+                        results.append(" ").append(palindrome.substring(digitalData)).append("@").append(palindrome.getStart());
+                    }
+                    results.append("\n");
+                    return results.toString();
+                }
+            }
+
+            @Override
+            protected void process(List<Integer> percents) {
+                if (isCancelled()) return;
+                digitalProgress.setValue(percents.get(percents.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    resultsArea.append(get());
+                } catch (Exception ex) {
+                    digitalProgress.setString("Failed: " + ex.getCause());
+                    return;
+                }
+                digitalProgress.setValue(100);
+                digitalProgress.setString("Done");
+            }
+        };
+        palindromeWorker.execute();
+    }
+
+    // Same test as matches("[01]+"), without the regex machinery on multi-megabyte input
+    private static boolean isBinary(String data) {
+        if (data.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c != '0' && c != '1') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int widen(byte[] symbols, int count, float[] out, int pos) {
+        for (int i = 0; i < count; i++) {
+            out[pos++] = symbols[i];
+        }
+        return pos;
+    }
+
+    private static void appendStatistics(StringBuilder results, SignalStatistics statistics) {
+        results.append(String.format("DC Offset:        %+.3f (max drift %d)%n",
+                statistics.getDcOffset(), statistics.getMaxDrift()));
+        results.append(String.format("Transitions/Bit:  %.3f%n", statistics.getTransitionsPerBit()));
+        results.append("Longest Run:      ").append(statistics.getLongestRun()).append(" symbols\n");
+        results.append("Run Lengths:     ");
+        long[] histogram = statistics.getRunHistogram();
+        for (int length = 1; length < histogram.length; length++) {
+            if (histogram[length] > 0) {
+                String label = (length == SignalStatistics.MAX_RUN_BUCKET) ? length + "+" : String.valueOf(length);
+                results.append(" ").append(label).append(":").append(histogram[length]);
+            }
+        }
+        results.append("\n");
+        if (statistics.getScheme() == Scheme.AMI) {
+            results.append("Bipolar Violations: ").append(statistics.getBipolarViolations()).append("\n");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,216 @@
+package com.encoder.bench;
+
+import com.encoder.core.LineEncoder;
+import com.encoder.core.LineEncoder.Scheme;
+import com.encoder.core.PalindromeFinder;
+import com.encoder.core.Scrambler;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Fixed baseline for the core paths: LineEncoder.encode for every scheme, Scrambler.b8zs /
+ * Scrambler.hdb3 and PalindromeFinder.findLongestPalindrome (sequential and parallel),
+ * over '0'/'1' strings of 1 KB to 100 MB with random, all-zero (scrambler worst case),
+ * periodic bits, and random bits with a long zero run across a chunk boundary of the
+ * parallel palindrome search (its merge worst case).
+ *
+ * Each case is warmed up, then run for a fixed time. Reported are ops/s, Mbit/s and the
+ * bytes allocated per op and per second (from the thread allocation counter, like the JMH
+ * GC profiler's gc.alloc.rate.norm / gc.alloc.rate). Results are written to a sink so the
+ * JIT cannot drop the work.
+ *
+ * Run with: java -Xmx4g -cp out/production/JJitter com.encoder.bench.BenchmarkSuite [filter] [max size]
+ * e.g. "BenchmarkSuite hdb3 16MB" runs only the cases whose name contains "hdb3", up to 16 MB.
+ * Cases that would not fit in the heap are listed as skipped.
+ */
+public class BenchmarkSuite {
+
+    private static final int[] SIZES = {1 << 10, 64 << 10, 1 << 20, 16 << 20, 100 << 20};
+
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+    private static final int MIN_WARMUP_OPS = 2;
+    private static final int MIN_MEASURED_OPS = 3;
+
+    // The List<Double> API boxes every symbol, so it is only run on the smaller inputs
+    private static final int LIST_API_LIMIT = 1 << 20;
+
+    // The parallel palindrome search splits by pool size, not by the cores it gets,
+    // so it is run once per pool size to show how it scales
+    private static final int[] PALINDROME_THREADS = {1, 2, 4, 8, 16};
+    // Pool size whose first chunk boundary the ZERO_RUN pattern straddles
+    private static final int ZERO_RUN_THREADS = 8;
+
+    enum Pattern {
+        RANDOM, ZEROS, PERIODIC, ZERO_RUN
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        String filter = (args.length > 0) ? args[0].toLowerCase(Locale.ROOT) : "";
+        long maxSize = (args.length > 1) ? parseSize(args[1]) : Long.MAX_VALUE;
+
+        List<Case> cases = cases();
+        System.out.printf("%-40s %-9s %8s %12s %10s %14s %12s%n",
+                "Benchmark", "Pattern", "Size", "ops/s", "Mbit/s", "B/op", "MB/s alloc");
+
+        for (int size : SIZES) {
+            if (size > maxSize) continue;
+            for (Pattern pattern : Pattern.values()) {
+                String input = null;
+                for (Case c : cases) {
+                    if (!c.name.toLowerCase(Locale.ROOT).contains(filter) || size > c.maxSize) continue;
+                    if (!fits(c, size)) {
+                        System.out.printf("%-40s %-9s %8s   skipped, needs about %d MB of heap%n",
+                                c.name, pattern, formatSize(size), (long) c.bytesPerBit * size >> 20);
+                        continue;
+                    }
+                    if (input == null) {
+                        input = generate(pattern, size);
+                    }
+                    run(c, pattern, input);
+                }
+            }
+        }
+    }
+
+    private static List<Case> cases() {
+        List<Case> cases = new ArrayList<>();
+        for (Scheme scheme : Scheme.values()) {
+            int symbols = LineEncoder.symbolsPerBit(scheme);
+            cases.add(new Case("LineEncoder.encode " + scheme, symbols, Integer.MAX_VALUE, data -> {
+                byte[] out = new byte[LineEncoder.encodedLength(data.length(), scheme)];
+                return LineEncoder.encode(data, scheme, out, 0);
+            }));
+        }
+        for (Scheme scheme : Scheme.values()) {
+            // Roughly 16 bytes per Double plus the list slot
+            int symbols = LineEncoder.symbolsPerBit(scheme);
+            cases.add(new Case("LineEncoder.encode list " + scheme, 24 * symbols, LIST_API_LIMIT,
+                    data -> LineEncoder.encode(data, scheme).size()));
+        }
+        // Builder growth plus the result string
+        cases.add(new Case("Scrambler.b8zs", 4, Integer.MAX_VALUE, data -> Scrambler.b8zs(data).length()));
+        cases.add(new Case("Scrambler.hdb3", 4, Integer.MAX_VALUE, data -> Scrambler.hdb3(data).length()));
+        // char[2n+1] and int[2n+1]
+        cases.add(new Case("PalindromeFinder.longest", 12, Integer.MAX_VALUE,
+                data -> PalindromeFinder.findLongestPalindrome(data).length()));
+        // int[2n+1] of radii across the chunks
+        for (int threads : PALINDROME_THREADS) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            cases.add(new Case("PalindromeFinder.parallel " + threads + " threads", 10, Integer.MAX_VALUE,
+                    data -> PalindromeFinder.parallelFindLongestPalindrome(data, pool).length()));
+        }
+        return cases;
+    }
+
+    private static void run(Case c, Pattern pattern, String input) {
+        long deadline = System.nanoTime() + WARMUP_NANOS;
+        for (int i = 0; i < MIN_WARMUP_OPS || System.nanoTime() < deadline; i++) {
+            consume(c.op.apply(input));
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long elapsed;
+        int ops = 0;
+        do {
+            consume(c.op.apply(input));
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (ops < MIN_MEASURED_OPS || elapsed < MEASURE_NANOS);
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%-40s %-9s %8s %12.1f %10.1f %14d %12.1f%n",
+                c.name, pattern, formatSize(input.length()), ops / seconds,
+                (double) input.length() * ops / seconds / 1e6, allocated / ops, allocated / seconds / (1 << 20));
+    }
+
+    private static void consume(Object result) {
+        sink += result.hashCode();
+    }
+
+    /**
+     * Builds a '0'/'1' string of size characters (one bit per char).
+     */
+    static String generate(Pattern pattern, int size) {
+        byte[] bits = new byte[size];
+        switch (pattern) {
+            case RANDOM:
+                Random random = new Random(42);
+                for (int i = 0; i < size; i++) {
+                    bits[i] = random.nextBoolean() ? (byte) '1' : (byte) '0';
+                }
+                break;
+            case ZEROS:
+                Arrays.fill(bits, (byte) '0');
+                break;
+            case PERIODIC:
+                // A 16-bit frame with a run of zeros long enough for HDB3
+                String period = "1100001011010000";
+                for (int i = 0; i < size; i++) {
+                    bits[i] = (byte) period.charAt(i % period.length());
+                }
+                break;
+            case ZERO_RUN:
+                // Random, with zeros over 1/40 of the input centered on 1/32 of it: the first
+                // chunk boundary once the parallel search splits 4 chunks per thread of 8
+                random = new Random(42);
+                for (int i = 0; i < size; i++) {
+                    bits[i] = random.nextBoolean() ? (byte) '1' : (byte) '0';
+                }
+                int run = size / 40;
+                int seam = size / (4 * ZERO_RUN_THREADS);
+                Arrays.fill(bits, Math.max(0, seam - run / 2), Math.min(size, seam + run / 2), (byte) '0');
+                break;
+        }
+        return new String(bits, StandardCharsets.ISO_8859_1);
+    }
+
+    // Input string (1 byte per bit) plus what the case allocates, with some headroom
+    private static boolean fits(Case c, int size) {
+        Runtime runtime = Runtime.getRuntime();
+        long needed = (c.bytesPerBit + 2L) * size;
+        return needed < runtime.maxMemory() * 3 / 4;
+    }
+
+    private static long parseSize(String text) {
+        String upper = text.toUpperCase(Locale.ROOT);
+        if (upper.endsWith("KB")) return Long.parseLong(upper.substring(0, upper.length() - 2)) << 10;
+        if (upper.endsWith("MB")) return Long.parseLong(upper.substring(0, upper.length() - 2)) << 20;
+        return Long.parseLong(upper);
+    }
+
+    private static String formatSize(long size) {
+        return (size >= 1 << 20) ? (size >> 20) + " MB" : (size >> 10) + " KB";
+    }
+
+    private static class Case {
+
+        final String name;
+        final int bytesPerBit; // Rough heap needed per input bit, to skip cases that cannot fit
+        final int maxSize;
+        final Function<String, Object> op;
+
+        Case(String name, int bytesPerBit, int maxSize, Function<String, Object> op) {
+            this.name = name;
+            this.bytesPerBit = bytesPerBit;
+            this.maxSize = maxSize;
+            this.op = op;
+        }
+    }
+}
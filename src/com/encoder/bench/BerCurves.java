@@ -0,0 +1,138 @@
+package com.encoder.bench;
+
+import com.encoder.core.BerPoint;
+import com.encoder.core.BerSimulator;
+import com.encoder.core.JitterChannel;
+import com.encoder.core.LineEncoder.Scheme;
+import com.encoder.core.StreamingScrambler.Mode;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bit error rate vs SNR for every scheme and for AMI with B8ZS/HDB3, on all cores.
+ * Each point runs until its 95% interval is within TOLERANCE of the estimate or
+ * max bits were simulated; a curve ends after its first error-free point. Prints
+ * every point with the simulated bits/s and writes all points to a CSV file.
+ * The B8ZS/HDB3 curves are then checked against plain AMI: a substitution hit by a
+ * channel error costs at most a few bits, so at high SNR their BER must stay within
+ * MAX_SCRAMBLED_RATIO of AMI's, and a floor there means the descrambler propagates
+ * errors.
+ *
+ * Run with: java -cp out/production/JJitter com.encoder.bench.BerCurves [csv file] [max bits] [rj]
+ * e.g. "BerCurves ber.csv 1000000000 0.05" goes down to about BER 1e-9 with 0.05 UI rms
+ * random jitter.
+ */
+public class BerCurves {
+
+    private static final double SNR_FROM = 0.0;
+    private static final double SNR_TO = 20.0;
+    private static final double SNR_STEP = 1.0;
+    private static final double TOLERANCE = 0.2;
+    private static final long SEED = 42;
+
+    // Scrambled BER may exceed AMI's by this factor at SNRs where AMI's BER is below
+    // HIGH_SNR_BER (measured: up to about 1.6x for HDB3, 1.2x for B8ZS)
+    private static final double MAX_SCRAMBLED_RATIO = 2.0;
+    private static final double HIGH_SNR_BER = 1e-2;
+
+    // Receiver sees the jittered edges at this many samples per UI
+    private static final int SAMPLES_PER_UI = 8;
+    private static final double RISE_TIME = 0.2;
+
+    public static void main(String[] args) throws IOException {
+        Path csv = Paths.get((args.length > 0) ? args[0] : "ber.csv");
+        long maxBits = (args.length > 1) ? Long.parseLong(args[1]) : 100_000_000L;
+        double randomJitter = (args.length > 2) ? Double.parseDouble(args[2]) : 0.0;
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        JitterChannel channel = new JitterChannel(SAMPLES_PER_UI, randomJitter, 0, 1, 0, 0, RISE_TIME, SEED);
+        System.out.printf("BER curves, up to %,d bits per point, RJ %.3f UI, %d threads%n",
+                maxBits, randomJitter, pool.getParallelism());
+        System.out.printf("%-16s %7s %12s %12s %12s %16s %10s%n",
+                "Scheme", "SNR dB", "BER", "low", "high", "bits", "Mbit/s");
+
+        List<BerPoint> points = new ArrayList<>();
+        List<BerPoint> ami = null;
+        for (Scheme scheme : Scheme.values()) {
+            List<BerPoint> curve = curve(new BerSimulator(scheme, null, channel), maxBits, pool);
+            if (scheme == Scheme.AMI) {
+                ami = curve;
+            }
+            points.addAll(curve);
+        }
+        List<List<BerPoint>> scrambled = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            List<BerPoint> curve = curve(new BerSimulator(Scheme.AMI, mode, channel), maxBits, pool);
+            scrambled.add(curve);
+            points.addAll(curve);
+        }
+
+        write(csv, points);
+        System.out.println("Wrote " + points.size() + " points to " + csv.toAbsolutePath());
+
+        for (List<BerPoint> curve : scrambled) {
+            checkTracksAmi(curve, ami);
+        }
+    }
+
+    /**
+     * Throws if, at a high-SNR point where both curves saw errors, the scrambled BER is
+     * certainly (lower bound against upper bound) more than MAX_SCRAMBLED_RATIO times AMI's.
+     */
+    private static void checkTracksAmi(List<BerPoint> curve, List<BerPoint> ami) {
+        double worst = 0;
+        int compared = 0;
+        for (BerPoint point : curve) {
+            for (BerPoint reference : ami) {
+                if (Math.abs(reference.getSnrDb() - point.getSnrDb()) > 1e-9
+                        || reference.getBer() >= HIGH_SNR_BER || reference.getErrors() == 0 || point.getErrors() == 0) {
+                    continue;
+                }
+                compared++;
+                worst = Math.max(worst, point.getBer() / reference.getBer());
+                if (point.getLowerBound() > MAX_SCRAMBLED_RATIO * reference.getUpperBound()) {
+                    throw new IllegalStateException(String.format(Locale.ROOT,
+                            "%s BER %.3e at %.1f dB is more than %.1fx AMI's %.3e",
+                            point.getLabel(), point.getBer(), point.getSnrDb(), MAX_SCRAMBLED_RATIO, reference.getBer()));
+                }
+            }
+        }
+        if (compared > 0) {
+            System.out.printf("%s tracks AMI at high SNR: at most %.2fx its BER over %d points%n",
+                    curve.get(0).getLabel(), worst, compared);
+        }
+    }
+
+    private static List<BerPoint> curve(BerSimulator simulator, long maxBits, ForkJoinPool pool) {
+        List<BerPoint> points = new ArrayList<>();
+        for (double snr = SNR_FROM; snr <= SNR_TO + 1e-9; snr += SNR_STEP) {
+            BerPoint point = simulator.simulate(snr, maxBits, TOLERANCE, SEED, pool);
+            points.add(point);
+            System.out.printf("%-16s %7.1f %12.3e %12.3e %12.3e %,16d %10.1f%n",
+                    point.getLabel(), point.getSnrDb(), point.getBer(), point.getLowerBound(),
+                    point.getUpperBound(), point.getBits(), point.getBitsPerSecond() / 1e6);
+            if (point.getErrors() == 0) break;
+        }
+        return points;
+    }
+
+    private static void write(Path csv, List<BerPoint> points) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+            out.println("scheme,snr_db,bits,errors,ber,ber_low,ber_high,seconds,bits_per_second");
+            for (BerPoint point : points) {
+                out.println(String.format(Locale.ROOT, "%s,%.2f,%d,%d,%.6e,%.6e,%.6e,%.3f,%.0f",
+                        point.getLabel(), point.getSnrDb(), point.getBits(), point.getErrors(), point.getBer(),
+                        point.getLowerBound(), point.getUpperBound(), point.getSeconds(), point.getBitsPerSecond()));
+            }
+        }
+    }
+}
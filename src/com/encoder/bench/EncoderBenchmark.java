@@ -0,0 +1,64 @@
+package com.encoder.bench;
+
+import com.encoder.core.LineEncoder;
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.util.Random;
+
+/**
+ * Compares the per-char LineEncoder kernels (nrzl, nrzi, manchester, diffManchester, ami)
+ * against the table-driven packed-byte kernels.
+ * Run with: java -cp out/production/JJitter com.encoder.bench.EncoderBenchmark [bits]
+ * Add --add-modules jdk.incubator.vector to measure the Vector API kernels for NRZ-L, NRZ-I
+ * and Manchester, and -Dcom.encoder.vector=false to compare against the tables alone.
+ */
+public class EncoderBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int bitCount = (args.length > 0) ? Integer.parseInt(args[0]) : 16 * 1024 * 1024;
+        bitCount -= bitCount % 8;
+
+        // Same random bits in both representations
+        Random random = new Random(42);
+        byte[] packed = new byte[bitCount / 8];
+        random.nextBytes(packed);
+        StringBuilder chars = new StringBuilder(bitCount);
+        for (byte b : packed) {
+            for (int shift = 7; shift >= 0; shift--) {
+                chars.append(((b >>> shift) & 1) == 0 ? '0' : '1');
+            }
+        }
+        String data = chars.toString();
+
+        System.out.printf("Encoding %,d random bits (vectorized: %b)%n", bitCount, LineEncoder.isVectorized());
+        System.out.printf("%-16s %14s %14s %9s%n", "Scheme", "char Mbit/s", "table Mbit/s", "speedup");
+
+        for (Scheme scheme : Scheme.values()) {
+            byte[] out = new byte[LineEncoder.encodedLength(bitCount, scheme)];
+
+            double charRate = measure(bitCount, () -> LineEncoder.encode(data, scheme, out, 0));
+            double tableRate = measure(bitCount, () -> LineEncoder.encodePacked(packed, 0, packed.length, scheme, out, 0));
+
+            System.out.printf("%-16s %14.1f %14.1f %8.1fx%n", scheme, charRate, tableRate, tableRate / charRate);
+        }
+    }
+
+    /**
+     * Runs the task a few times to warm up, then returns the best rate in Mbit/s.
+     */
+    private static double measure(int bitCount, Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return bitCount / (best / 1000.0);
+    }
+}
@@ -0,0 +1,143 @@
+package com.encoder.bench;
+
+import com.encoder.core.Descrambler;
+import com.encoder.core.LineDecoder;
+import com.encoder.core.LineEncoder.Scheme;
+import com.encoder.core.ScrambledAmiEncoder;
+import com.encoder.core.StreamingEncoder;
+import com.encoder.core.StreamingScrambler.Mode;
+
+import java.util.Random;
+
+/**
+ * Encodes random bits and decodes them again, one block at a time on a single thread,
+ * for every scheme and for AMI with B8ZS/HDB3. Reports round-trip throughput and checks
+ * that the decoded bits match the input with no code violations.
+ * Run with: java -cp out/production/JJitter com.encoder.bench.RoundTripBenchmark [bits]
+ */
+public class RoundTripBenchmark {
+
+    private static final int BLOCK_BYTES = 8192;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int bitCount = (args.length > 0) ? Integer.parseInt(args[0]) : 64 * 1024 * 1024;
+        int byteCount = bitCount / 8 - (bitCount / 8) % BLOCK_BYTES;
+        bitCount = byteCount * 8;
+
+        Random random = new Random(42);
+        byte[] packed = new byte[byteCount];
+        random.nextBytes(packed);
+
+        System.out.printf("Round trip of %,d random bits%n", bitCount);
+        System.out.printf("%-16s %14s %12s%n", "Scheme", "Mbit/s", "violations");
+
+        for (Scheme scheme : Scheme.values()) {
+            RoundTrip trip = new SchemeRoundTrip(scheme);
+            report(scheme.toString(), bitCount, trip.run(packed, true), measure(bitCount, () -> trip.run(packed, false)));
+        }
+        for (Mode mode : Mode.values()) {
+            RoundTrip trip = new ScrambledRoundTrip(mode);
+            report("AMI+" + mode, bitCount, trip.run(packed, true), measure(bitCount, () -> trip.run(packed, false)));
+        }
+    }
+
+    private static void report(String name, int bitCount, long violations, double rate) {
+        System.out.printf("%-16s %14.1f %12d%n", name, rate, violations);
+    }
+
+    private static double measure(int bitCount, Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return bitCount / (best / 1000.0);
+    }
+
+    private abstract static class RoundTrip {
+
+        final byte[] symbols = new byte[BLOCK_BYTES * 16 + 16];
+        final byte[] decoded = new byte[BLOCK_BYTES * 8 + 16];
+
+        /**
+         * Encodes and decodes all of packed, returning the number of violations.
+         * With check set, throws if a decoded block does not match its input.
+         */
+        abstract long run(byte[] packed, boolean check);
+
+        static void verify(boolean check, byte[] packed, long firstBit, byte[] decoded, int count) {
+            if (!check) return;
+            for (int i = 0; i < count; i++) {
+                long bit = firstBit + i;
+                int expected = (packed[(int) (bit >>> 3)] >>> (7 - (int) (bit & 7))) & 1;
+                if (decoded[i] != '0' + expected) {
+                    throw new IllegalStateException("Round trip mismatch at bit " + bit);
+                }
+            }
+        }
+    }
+
+    private static class SchemeRoundTrip extends RoundTrip {
+
+        private final Scheme scheme;
+
+        SchemeRoundTrip(Scheme scheme) {
+            this.scheme = scheme;
+        }
+
+        @Override
+        long run(byte[] packed, boolean check) {
+            StreamingEncoder encoder = new StreamingEncoder(scheme);
+            LineDecoder decoder = new LineDecoder(scheme);
+            long bit = 0;
+            for (int from = 0; from < packed.length; from += BLOCK_BYTES) {
+                int count = encoder.encodePacked(packed, from, from + BLOCK_BYTES, symbols, 0);
+                int bits = decoder.decode(symbols, 0, count, decoded, 0);
+                verify(check, packed, bit, decoded, bits);
+                bit += bits;
+            }
+            return decoder.getViolationCount();
+        }
+    }
+
+    private static class ScrambledRoundTrip extends RoundTrip {
+
+        private final Mode mode;
+        private final long[] words = new long[BLOCK_BYTES / 8];
+
+        ScrambledRoundTrip(Mode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        long run(byte[] packed, boolean check) {
+            ScrambledAmiEncoder encoder = new ScrambledAmiEncoder(mode);
+            Descrambler descrambler = new Descrambler(mode);
+            long bit = 0;
+            for (int from = 0; from < packed.length; from += BLOCK_BYTES) {
+                for (int w = 0; w < words.length; w++) {
+                    long word = 0;
+                    for (int b = 0; b < 8; b++) {
+                        word = (word << 8) | (packed[from + w * 8 + b] & 0xFF);
+                    }
+                    words[w] = word;
+                }
+                int count = encoder.encodeWords(words, 0, words.length, symbols, 0);
+                int bits = descrambler.decode(symbols, 0, count, decoded, 0);
+                verify(check, packed, bit, decoded, bits);
+                bit += bits;
+            }
+            int count = encoder.flush(symbols, 0);
+            int bits = descrambler.decode(symbols, 0, count, decoded, 0);
+            bits += descrambler.flush(decoded, bits);
+            verify(check, packed, bit, decoded, bits);
+            return descrambler.getViolationCount();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.encoder.bench;
+
+import com.encoder.graphics.OGLSignalPlotter;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.IntPredicate;
+
+/**
+ * Renders a known signal through OGLSignalPlotter.snapshot, with no window, and checks
+ * the pixels: the green trace must sit on the +1 and -1 rows over the runs at those
+ * levels and nowhere near them elsewhere, and the white 0 axis must be drawn. Meant for
+ * a headless machine with Mesa (e.g. LIBGL_ALWAYS_SOFTWARE=1 under xvfb-run), so a
+ * broken shader or vertex buffer shows up without anyone looking at the plot.
+ * Run with: java -cp "out/production/JJitter:lib/*" com.encoder.bench.SnapshotSmokeTest [png file]
+ * The optional png file gets the rendered image.
+ */
+public class SnapshotSmokeTest {
+
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 400;
+
+    // Runs of +1, 0 and -1 levels, repeated
+    private static final int RUN = 100;
+    private static final int REPEATS = 4;
+
+    // Rows the trace may be off by (line width, rounding)
+    private static final int TOLERANCE = 3;
+
+    public static void main(String[] args) throws IOException {
+        int count = 3 * RUN * REPEATS;
+        double[] levels = new double[count];
+        for (int i = 0; i < count; i++) {
+            levels[i] = 1 - (i / RUN) % 3;
+        }
+
+        BufferedImage image = OGLSignalPlotter.snapshot(levels, count, WIDTH, HEIGHT);
+        if (image.getWidth() != WIDTH || image.getHeight() != HEIGHT) {
+            throw new IllegalStateException("Snapshot is " + image.getWidth() + "x" + image.getHeight()
+                    + ", expected " + WIDTH + "x" + HEIGHT);
+        }
+        if (args.length > 0) {
+            Path png = Paths.get(args[0]);
+            ImageIO.write(image, "png", png.toFile());
+            System.out.println("Wrote " + png.toAbsolutePath());
+        }
+        verify(image, count);
+        System.out.println("Snapshot OK: " + WIDTH + "x" + HEIGHT + ", " + count + " levels");
+    }
+
+    /**
+     * Throws if image is not the plot of the test signal's first count levels.
+     */
+    static void verify(BufferedImage image, int count) {
+        // The plot spans -2 to +2 with +1 at the top (image rows run downwards)
+        int highRow = HEIGHT / 4;
+        int zeroRow = HEIGHT / 2;
+        int lowRow = 3 * HEIGHT / 4;
+        for (int run = 0; run < 3 * REPEATS; run++) {
+            // Middle of the run, away from the vertical edges
+            int x = (int) ((run * RUN + RUN / 2.0) * WIDTH / count);
+            int level = 1 - run % 3;
+            check(image, x, highRow, level == 1, "+1", run);
+            check(image, x, lowRow, level == -1, "-1", run);
+        }
+
+        // The white 0 axis is visible where the trace is elsewhere, e.g. under the first (+1) run
+        int axisX = (int) (RUN / 2.0 * WIDTH / count);
+        if (!near(image, axisX, zeroRow, SnapshotSmokeTest::isWhite)) {
+            throw new IllegalStateException("No 0 axis at x " + axisX + ", row " + zeroRow);
+        }
+    }
+
+    private static void check(BufferedImage image, int x, int row, boolean expected, String level, int run) {
+        if (near(image, x, row, SnapshotSmokeTest::isGreen) != expected) {
+            throw new IllegalStateException((expected ? "No" : "Unexpected") + " trace on the " + level
+                    + " row at x " + x + " (run " + run + ")");
+        }
+    }
+
+    // Whether a pixel within TOLERANCE rows of (x, row) matches
+    private static boolean near(BufferedImage image, int x, int row, IntPredicate test) {
+        for (int y = Math.max(0, row - TOLERANCE); y <= Math.min(image.getHeight() - 1, row + TOLERANCE); y++) {
+            if (test.test(image.getRGB(x, y))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isGreen(int rgb) {
+        return ((rgb >> 16) & 0xFF) < 64 && ((rgb >> 8) & 0xFF) > 192 && (rgb & 0xFF) < 64;
+    }
+
+    private static boolean isWhite(int rgb) {
+        return ((rgb >> 16) & 0xFF) > 192 && ((rgb >> 8) & 0xFF) > 192 && (rgb & 0xFF) > 192;
+    }
+}
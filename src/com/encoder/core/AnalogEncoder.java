@@ -0,0 +1,97 @@
+package com.encoder.core;
+
+/**
+ * Turns blocks of analog samples (full scale -1 to +1) into a packed bitstream, MSB
+ * first, ready for StreamingEncoder.encodePacked or ScrambledAmiEncoder. Subclasses
+ * produce a fixed number of bits per sample; the bits that do not fill a whole byte
+ * are carried into the next call, so the stream is the same wherever blocks split.
+ * Not thread-safe.
+ */
+public abstract class AnalogEncoder {
+
+    private final int bitsPerSample;
+
+    // Bits not yet written, in the low pendingBits bits
+    private long accumulator;
+    private int pendingBits;
+
+    protected AnalogEncoder(int bitsPerSample) {
+        this.bitsPerSample = bitsPerSample;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    /**
+     * Bytes needed for sampleCount samples, including the partial byte left for flush.
+     */
+    public int maxPackedLength(int sampleCount) {
+        return (int) (((long) sampleCount * bitsPerSample + pendingBits + 7) / 8);
+    }
+
+    /**
+     * Forgets the carried bits and the quantizer state, as if starting a new stream.
+     */
+    public void reset() {
+        accumulator = 0;
+        pendingBits = 0;
+        resetState();
+    }
+
+    /**
+     * Encodes samples[from, to) into packed bytes starting at packed[offset].
+     * @return Number of whole bytes written
+     */
+    public int encode(double[] samples, int from, int to, byte[] packed, int offset) {
+        return encode(samples, from, to, packed, offset, null, 0);
+    }
+
+    /**
+     * Same as encode, and also writes what a receiver reconstructs from each sample's
+     * code into levels[levelOffset, levelOffset + to - from), unless levels is null.
+     */
+    public int encode(double[] samples, int from, int to, byte[] packed, int offset, double[] levels, int levelOffset) {
+        int pos = offset;
+        int bits = bitsPerSample;
+        for (int i = from; i < to; i++) {
+            accumulator = (accumulator << bits) | code(samples[i]);
+            pendingBits += bits;
+            while (pendingBits >= 8) {
+                pendingBits -= 8;
+                packed[pos++] = (byte) (accumulator >>> pendingBits);
+            }
+            if (levels != null) {
+                levels[levelOffset + i - from] = level();
+            }
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Writes the bits still carried (fewer than 8) as one byte, MSB first, padded with zeros.
+     * @return Number of valid bits in packed[offset], 0 if nothing was written
+     */
+    public int flush(byte[] packed, int offset) {
+        int bits = pendingBits;
+        if (bits > 0) {
+            packed[offset] = (byte) (accumulator << (8 - bits));
+        }
+        accumulator = 0;
+        pendingBits = 0;
+        return bits;
+    }
+
+    /**
+     * Quantizes one sample.
+     * @return Code in the low getBitsPerSample() bits
+     */
+    protected abstract int code(double sample);
+
+    /**
+     * Level the receiver reconstructs from the last code.
+     */
+    public abstract double level();
+
+    protected abstract void resetState();
+}
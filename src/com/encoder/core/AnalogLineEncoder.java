@@ -0,0 +1,151 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+import com.encoder.core.StreamingScrambler.Mode;
+
+import java.io.IOException;
+
+/**
+ * Analog samples to line symbols in one streaming pass: an AnalogEncoder (PCM or delta
+ * modulation) packs each block of samples into bits, which go straight into the
+ * table-driven StreamingEncoder, or into ScrambledAmiEncoder for AMI with B8ZS/HDB3.
+ * Samples are taken in fixed blocks through preallocated buffers, so streams of any
+ * length run without allocating. Not thread-safe.
+ */
+public class AnalogLineEncoder {
+
+    private static final int BLOCK_SAMPLES = 4096;
+
+    private final AnalogEncoder analog;
+    private final Scheme scheme;
+    private final StreamingEncoder encoder;
+    private final ScrambledAmiEncoder scrambler;
+
+    private final byte[] packed;
+    private final long[] words;
+    private final byte[] ascii = new byte[8];
+    private final byte[] symbols;
+
+    /**
+     * @param scrambling B8ZS/HDB3 pass to run before AMI, or null for none
+     */
+    public AnalogLineEncoder(AnalogEncoder analog, Scheme scheme, Mode scrambling) {
+        if (scrambling != null && scheme != Scheme.AMI) {
+            throw new IllegalArgumentException("Scrambling is only defined for AMI, not " + scheme);
+        }
+        this.analog = analog;
+        this.scheme = scheme;
+        this.encoder = (scrambling == null) ? new StreamingEncoder(scheme) : null;
+        this.scrambler = (scrambling != null) ? new ScrambledAmiEncoder(scrambling) : null;
+
+        // Room for a block plus the bits carried from the previous one
+        this.packed = new byte[(BLOCK_SAMPLES * analog.getBitsPerSample() + 7) / 8 + 1];
+        this.words = new long[packed.length / 8 + 1];
+        this.symbols = new byte[maxSymbols(BLOCK_SAMPLES)];
+    }
+
+    public AnalogEncoder getAnalogEncoder() {
+        return analog;
+    }
+
+    public Scheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * Largest number of symbols encode or flush can write for sampleCount samples.
+     */
+    public int maxSymbols(int sampleCount) {
+        int bits = (int) (((long) sampleCount * analog.getBitsPerSample() + 7) / 8 + 1) * 8;
+        return LineEncoder.encodedLength(bits, scheme) + ((scrambler != null) ? scrambler.maxPending() + 8 : 0);
+    }
+
+    public void reset() {
+        analog.reset();
+        if (encoder != null) {
+            encoder.reset();
+        } else {
+            scrambler.reset();
+        }
+    }
+
+    /**
+     * Encodes samples[from, to) into symbols starting at out[offset]; out needs
+     * maxSymbols(to - from) bytes from offset.
+     * @param levels Receives the reconstructed level of each sample, or null
+     * @return Number of symbols written
+     */
+    public int encode(double[] samples, int from, int to, byte[] out, int offset, double[] levels) {
+        int pos = offset;
+        for (int start = from; start < to; start += BLOCK_SAMPLES) {
+            int end = Math.min(start + BLOCK_SAMPLES, to);
+            int bytes = analog.encode(samples, start, end, packed, 0, levels, start - from);
+            pos += encodePacked(bytes, out, pos);
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Encodes samples[from, to) and passes the symbols to sink, a block at a time.
+     * @return Number of symbols passed on
+     */
+    public long encode(double[] samples, int from, int to, SymbolSink sink) throws IOException {
+        long written = 0;
+        for (int start = from; start < to; start += BLOCK_SAMPLES) {
+            int end = Math.min(start + BLOCK_SAMPLES, to);
+            int count = encode(samples, start, end, symbols, 0, null);
+            sink.accept(symbols, 0, count);
+            written += count;
+        }
+        return written;
+    }
+
+    /**
+     * Encodes the bits of a last partial byte and anything the scrambler held back, at
+     * the end of the stream.
+     * @return Number of symbols written
+     */
+    public int flush(byte[] out, int offset) {
+        int pos = offset;
+        int bits = analog.flush(packed, 0);
+        if (encoder != null) {
+            for (int k = 0; k < bits; k++) {
+                ascii[k] = (byte) (((packed[0] >>> (7 - k)) & 1) != 0 ? '1' : '0');
+            }
+            pos += encoder.encode(ascii, 0, bits, out, pos);
+        } else {
+            if (bits > 0) {
+                pos += scrambler.encodeBits((long) packed[0] << 56, bits, out, pos);
+            }
+            pos += scrambler.flush(out, pos);
+        }
+        return pos - offset;
+    }
+
+    public long flush(SymbolSink sink) throws IOException {
+        int count = flush(symbols, 0);
+        sink.accept(symbols, 0, count);
+        return count;
+    }
+
+    // Line-encodes packed[0, bytes)
+    private int encodePacked(int bytes, byte[] out, int offset) {
+        if (encoder != null) {
+            return encoder.encodePacked(packed, 0, bytes, out, offset);
+        }
+        // Whole words through the word-at-a-time scrambler, then the last bytes one by one
+        int wordCount = bytes / 8;
+        for (int w = 0; w < wordCount; w++) {
+            long word = 0;
+            for (int k = 0; k < 8; k++) {
+                word = (word << 8) | (packed[8 * w + k] & 0xFF);
+            }
+            words[w] = word;
+        }
+        int pos = offset + scrambler.encodeWords(words, 0, wordCount, out, offset);
+        for (int i = 8 * wordCount; i < bytes; i++) {
+            pos += scrambler.encodeBits((long) (packed[i] & 0xFF) << 56, 8, out, pos);
+        }
+        return pos - offset;
+    }
+}
@@ -0,0 +1,41 @@
+package com.encoder.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable CharSequence view over a window of ASCII bytes ('0', '1', '+', '-'),
+ * so raw stream buffers can be fed to the LineEncoder kernels without building a String.
+ */
+final class AsciiBits implements CharSequence {
+
+    private byte[] bytes;
+    private int offset;
+    private int length;
+
+    AsciiBits wrap(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) bytes[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new AsciiBits().wrap(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+    }
+}
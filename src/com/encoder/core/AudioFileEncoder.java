@@ -0,0 +1,219 @@
+package com.encoder.core;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Line-encodes audio files through an AnalogLineEncoder. The file is mapped with
+ * FileChannel.map and read in frame-aligned windows; the first channel of each frame
+ * is converted to a full-scale double in a fixed block, so minutes of 48 kHz audio
+ * stream through without per-sample objects. WAV files may hold 8/16/24/32-bit
+ * integer or 32-bit float PCM; raw files are signed 16-bit little-endian.
+ */
+public class AudioFileEncoder {
+
+    // Bytes mapped at a time (rounded down to whole frames)
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int BLOCK_SAMPLES = 8192;
+
+    private static final int WAVE_FORMAT_PCM = 1;
+    private static final int WAVE_FORMAT_FLOAT = 3;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+    /**
+     * Where the samples are in a file and how they are stored.
+     */
+    public static final class Format {
+
+        private final long dataOffset;
+        private final long dataLength;
+        private final int channels;
+        private final int bytesPerSample;
+        private final boolean floating;
+        private final int sampleRate;
+
+        Format(long dataOffset, long dataLength, int channels, int bytesPerSample, boolean floating, int sampleRate) {
+            this.dataOffset = dataOffset;
+            this.dataLength = dataLength;
+            this.channels = channels;
+            this.bytesPerSample = bytesPerSample;
+            this.floating = floating;
+            this.sampleRate = sampleRate;
+        }
+
+        public int getChannels() {
+            return channels;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public int getBitsPerSample() {
+            return 8 * bytesPerSample;
+        }
+
+        public boolean isFloating() {
+            return floating;
+        }
+
+        /**
+         * Number of frames (samples per channel).
+         */
+        public long getFrameCount() {
+            return dataLength / frameSize();
+        }
+
+        int frameSize() {
+            return channels * bytesPerSample;
+        }
+    }
+
+    /**
+     * Reads the fmt and data chunks of a RIFF/WAVE file.
+     */
+    public static Format readWavFormat(Path input) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = in.size();
+            MappedByteBuffer header = in.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, 12));
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (size < 12 || header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) { // "RIFF", "WAVE"
+                throw new IllegalArgumentException(input + " is not a WAV file");
+            }
+
+            int format = -1;
+            int channels = 0;
+            int sampleRate = 0;
+            int bits = 0;
+            long position = 12;
+            while (position + 8 <= size) {
+                MappedByteBuffer chunk = in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, 48));
+                chunk.order(ByteOrder.LITTLE_ENDIAN);
+                int id = chunk.getInt(0);
+                long length = chunk.getInt(4) & 0xFFFFFFFFL;
+                if (id == 0x20746D66 && length >= 16) { // "fmt "
+                    format = chunk.getShort(8) & 0xFFFF;
+                    channels = chunk.getShort(10) & 0xFFFF;
+                    sampleRate = chunk.getInt(12);
+                    bits = chunk.getShort(22) & 0xFFFF;
+                    if (format == WAVE_FORMAT_EXTENSIBLE && length >= 40) {
+                        format = chunk.getShort(32) & 0xFFFF; // First two bytes of the sub-format GUID
+                    }
+                } else if (id == 0x61746164) { // "data"
+                    if (format < 0) {
+                        throw new IllegalArgumentException(input + ": data chunk before fmt chunk");
+                    }
+                    boolean floating = (format == WAVE_FORMAT_FLOAT);
+                    if ((format != WAVE_FORMAT_PCM && !floating) || channels == 0
+                            || (floating ? bits != 32 : bits % 8 != 0 || bits < 8 || bits > 32)) {
+                        throw new IllegalArgumentException(input + ": unsupported WAV format " + format
+                                + " with " + bits + " bits");
+                    }
+                    return new Format(position + 8, Math.min(length, size - position - 8), channels, bits / 8, floating, sampleRate);
+                }
+                position += 8 + length + (length & 1); // Chunks are padded to even sizes
+            }
+            throw new IllegalArgumentException(input + " has no data chunk");
+        }
+    }
+
+    /**
+     * Format of a headerless file of signed 16-bit little-endian samples.
+     */
+    public static Format rawFormat(Path input, int channels, int sampleRate) throws IOException {
+        if (channels < 1) {
+            throw new IllegalArgumentException("Channel count must be positive: " + channels);
+        }
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            return new Format(0, in.size(), channels, 2, false, sampleRate);
+        }
+    }
+
+    /**
+     * Encodes the first channel of a WAV file and passes the symbols to sink.
+     * @return Number of symbols written to sink
+     */
+    public static long encodeWav(Path input, AnalogLineEncoder encoder, SymbolSink sink) throws IOException {
+        return encode(input, readWavFormat(input), encoder, sink);
+    }
+
+    /**
+     * Encodes the first channel of the samples described by format.
+     * @return Number of symbols written to sink
+     */
+    public static long encode(Path input, Format format, AnalogLineEncoder encoder, SymbolSink sink) throws IOException {
+        double[] samples = new double[BLOCK_SAMPLES];
+        int frameSize = format.frameSize();
+        long window = WINDOW_SIZE - WINDOW_SIZE % frameSize;
+        long end = format.dataOffset + format.getFrameCount() * frameSize;
+        long written = 0;
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            for (long position = format.dataOffset; position < end; position += window) {
+                MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(window, end - position));
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+                int frames = buffer.capacity() / frameSize;
+                for (int first = 0; first < frames; first += BLOCK_SAMPLES) {
+                    int count = Math.min(BLOCK_SAMPLES, frames - first);
+                    read(buffer, format, first, count, samples);
+                    written += encoder.encode(samples, 0, count, sink);
+                }
+            }
+        }
+        return written + encoder.flush(sink);
+    }
+
+    /**
+     * Reads the first channel of up to count frames from firstFrame on, as -1..+1, into
+     * samples[0, count).
+     * @return Number of samples read
+     */
+    public static int read(Path input, Format format, long firstFrame, double[] samples, int count) throws IOException {
+        int frameSize = format.frameSize();
+        int frames = (int) Math.max(0, Math.min(count, format.getFrameCount() - firstFrame));
+        if (frames == 0) {
+            return 0;
+        }
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY,
+                    format.dataOffset + firstFrame * frameSize, (long) frames * frameSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            read(buffer, format, 0, frames, samples);
+        }
+        return frames;
+    }
+
+    // First-channel samples of frames [first, first + count) as -1..+1
+    private static void read(MappedByteBuffer buffer, Format format, int first, int count, double[] samples) {
+        int frameSize = format.frameSize();
+        int index = first * frameSize;
+        switch (format.bytesPerSample) {
+            case 1: // Unsigned, 128 is silence
+                for (int i = 0; i < count; i++, index += frameSize) {
+                    samples[i] = ((buffer.get(index) & 0xFF) - 128) / 128.0;
+                }
+                break;
+            case 2:
+                for (int i = 0; i < count; i++, index += frameSize) {
+                    samples[i] = buffer.getShort(index) / 32768.0;
+                }
+                break;
+            case 3:
+                for (int i = 0; i < count; i++, index += frameSize) {
+                    int value = (buffer.get(index) & 0xFF) | (buffer.get(index + 1) & 0xFF) << 8 | buffer.get(index + 2) << 16;
+                    samples[i] = value / 8388608.0;
+                }
+                break;
+            default:
+                for (int i = 0; i < count; i++, index += frameSize) {
+                    samples[i] = format.floating ? buffer.getFloat(index) : buffer.getInt(index) / 2147483648.0;
+                }
+                break;
+        }
+    }
+}
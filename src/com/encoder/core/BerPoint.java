@@ -0,0 +1,97 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+/**
+ * One point of a bit error rate curve: errors counted over a number of simulated bits
+ * at one SNR, with a 95% Wilson score interval for the true rate.
+ */
+public final class BerPoint {
+
+    private static final double Z_95 = 1.959963984540054;
+
+    private final Scheme scheme;
+    private final StreamingScrambler.Mode scrambling;
+    private final double snrDb;
+    private final long bits;
+    private final long errors;
+    private final long nanos;
+
+    public BerPoint(Scheme scheme, StreamingScrambler.Mode scrambling, double snrDb, long bits, long errors, long nanos) {
+        this.scheme = scheme;
+        this.scrambling = scrambling;
+        this.snrDb = snrDb;
+        this.bits = bits;
+        this.errors = errors;
+        this.nanos = nanos;
+    }
+
+    public Scheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * B8ZS / HDB3 for AMI, or null for none.
+     */
+    public StreamingScrambler.Mode getScrambling() {
+        return scrambling;
+    }
+
+    public double getSnrDb() {
+        return snrDb;
+    }
+
+    public long getBits() {
+        return bits;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getBer() {
+        return (bits == 0) ? 0 : (double) errors / bits;
+    }
+
+    public double getLowerBound() {
+        return wilson(-1);
+    }
+
+    /**
+     * Upper 95% bound; about 3.84 / bits when no error was seen.
+     */
+    public double getUpperBound() {
+        return wilson(+1);
+    }
+
+    private double wilson(int sign) {
+        if (bits == 0) return (sign > 0) ? 1 : 0;
+        double n = bits;
+        double p = errors / n;
+        double z2 = Z_95 * Z_95;
+        double center = (p + z2 / (2 * n)) / (1 + z2 / n);
+        double half = Z_95 * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n)) / (1 + z2 / n);
+        return Math.max(0, Math.min(1, center + sign * half));
+    }
+
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    public double getBitsPerSecond() {
+        return (nanos == 0) ? 0 : bits / (nanos / 1e9);
+    }
+
+    /**
+     * Scheme name with its scrambling, e.g. "AMI+HDB3".
+     */
+    public String getLabel() {
+        return (scrambling == null) ? scheme.name() : scheme.name() + "+" + scrambling.name();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s @ %.1f dB: BER %.3e [%.3e, %.3e] (%d / %d bits)",
+                getLabel(), snrDb, getBer(), getLowerBound(), getUpperBound(), errors, bits);
+    }
+}
@@ -0,0 +1,256 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+import com.encoder.core.StreamingScrambler.Mode;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte-Carlo bit error rate of a scheme (optionally AMI with B8ZS / HDB3) over a
+ * jitter channel with additive Gaussian noise: random bits are encoded, passed
+ * through the channel, sampled in the middle of each UI with noise added, sliced,
+ * decoded and compared with what was sent. Two-level codes slice at 0V; AMI uses
+ * +-0.5V like LineDecoder.
+ *
+ * The SNR is the peak symbol level (1) over the noise rms, per symbol. The noise is
+ * drawn exactly (nextGaussian) because low error rates live in its tails, so the
+ * channel itself should be noise free; it only contributes jitter and ramps.
+ *
+ * A point runs as rounds on a ForkJoinPool. Each round every link (4 per pool thread)
+ * simulates a slice of bits on its own SplittableRandom and its own preallocated
+ * buffers, and keeps its stream state for the next round. The point stops when the
+ * 95% interval is within the relative tolerance of the estimate, or at maxBits.
+ */
+public class BerSimulator {
+
+    // Bits per link and round; also the granularity of the stopping check
+    private static final long ROUND_BITS = 1 << 20;
+
+    private static final double Z_95 = 1.959963984540054;
+
+    // AMI slicer threshold, halfway between 0V and a pulse
+    private static final double AMI_THRESHOLD = 0.5;
+
+    private final Scheme scheme;
+    private final Mode scrambling;
+    private final JitterChannel channel;
+
+    /**
+     * @param scrambling B8ZS / HDB3 (AMI only), or null
+     * @param channel Jitter model, copied per link; null for an ideal channel
+     */
+    public BerSimulator(Scheme scheme, Mode scrambling, JitterChannel channel) {
+        if (scrambling != null && scheme != Scheme.AMI) {
+            throw new IllegalArgumentException("Scrambling applies to AMI only, not " + scheme);
+        }
+        this.scheme = scheme;
+        this.scrambling = scrambling;
+        this.channel = (channel != null) ? channel : new JitterChannel(1, 0, 0, 1, 0, 0, 0, 0);
+    }
+
+    /**
+     * Noise rms for an SNR in dB, relative to a peak level of 1.
+     */
+    public static double noiseRms(double snrDb) {
+        return Math.pow(10, -snrDb / 20);
+    }
+
+    /**
+     * Simulates at one SNR until the 95% interval is within tolerance (relative to the
+     * estimate) or maxBits were compared.
+     */
+    public BerPoint simulate(double snrDb, long maxBits, double tolerance, long seed, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        double sigma = noiseRms(snrDb);
+        // Poisson errors: relative half-width z / sqrt(errors)
+        long targetErrors = (long) Math.ceil(Math.pow(Z_95 / tolerance, 2));
+
+        SplittableRandom random = new SplittableRandom(seed);
+        Link[] links = new Link[pool.getParallelism() * 4];
+        for (int k = 0; k < links.length; k++) {
+            links[k] = new Link(scheme, scrambling, channel.split(), random.split(), sigma);
+        }
+
+        long bits = 0;
+        long errors = 0;
+        while (bits < maxBits && errors < targetErrors) {
+            long perLink = Math.max(1, Math.min(ROUND_BITS, (maxBits - bits) / links.length));
+            for (Link link : links) {
+                link.budget = perLink;
+            }
+            pool.invoke(new RoundTask(links, 0, links.length));
+
+            bits = 0;
+            errors = 0;
+            for (Link link : links) {
+                bits += link.compared;
+                errors += link.errors;
+            }
+        }
+        return new BerPoint(scheme, scrambling, snrDb, bits, errors, System.nanoTime() - start);
+    }
+
+    /**
+     * One transmitter, channel and receiver with its own random stream and buffers.
+     */
+    private static final class Link {
+
+        private static final int BLOCK_WORDS = 16; // 1024 bits per block
+
+        private final int samplesPerUi;
+        private final int symbolsPerBit;
+        private final boolean bipolar;
+        private final double sigma;
+        private final SplittableRandom random;
+
+        private final StreamingEncoder encoder;
+        private final ScrambledAmiEncoder scrambler;
+        private final JitterChannel channel;
+        private final LineDecoder decoder;
+        private final Descrambler descrambler;
+
+        private final long[] words = new long[BLOCK_WORDS];
+        private final byte[] packed = new byte[8 * BLOCK_WORDS];
+        private final byte[] symbols;
+        private final double[] samples;
+        private final byte[] received;
+        private final byte[] decoded;
+
+        // Sent bits not yet compared, as ASCII, in reference[referenceStart, referenceEnd)
+        private final byte[] reference;
+        private int referenceStart;
+        private int referenceEnd;
+
+        long budget;
+        long compared;
+        long errors;
+
+        Link(Scheme scheme, Mode scrambling, JitterChannel channel, SplittableRandom random, double sigma) {
+            this.samplesPerUi = channel.getSamplesPerUi();
+            this.symbolsPerBit = LineEncoder.symbolsPerBit(scheme);
+            this.bipolar = (scheme == Scheme.AMI);
+            this.sigma = sigma;
+            this.random = random;
+            this.channel = channel;
+            if (scrambling == null) {
+                encoder = new StreamingEncoder(scheme);
+                scrambler = null;
+                decoder = new LineDecoder(scheme);
+                descrambler = null;
+            } else {
+                encoder = null;
+                scrambler = new ScrambledAmiEncoder(scrambling);
+                decoder = null;
+                descrambler = new Descrambler(scrambling);
+            }
+
+            int blockBits = 64 * BLOCK_WORDS;
+            int maxSymbols = blockBits * symbolsPerBit + 8; // Plus zeros held by the scrambler
+            symbols = new byte[maxSymbols];
+            samples = new double[channel.maxOutputLength(maxSymbols)];
+            received = new byte[maxSymbols + 1];
+            decoded = new byte[maxSymbols + 8];
+            reference = new byte[4 * blockBits];
+        }
+
+        void run() {
+            long target = compared + budget;
+            while (compared < target) {
+                block();
+            }
+        }
+
+        private void block() {
+            for (int w = 0; w < BLOCK_WORDS; w++) {
+                words[w] = random.nextLong();
+            }
+            queueReference();
+
+            // Transmit
+            int count;
+            if (scrambler != null) {
+                count = scrambler.encodeWords(words, 0, BLOCK_WORDS, symbols, 0);
+            } else {
+                for (int w = 0; w < BLOCK_WORDS; w++) {
+                    long word = words[w];
+                    for (int k = 0; k < 8; k++) {
+                        packed[8 * w + k] = (byte) (word >>> (56 - 8 * k));
+                    }
+                }
+                count = encoder.encodePacked(packed, 0, packed.length, symbols, 0);
+            }
+
+            // Channel, then the receiver samples mid-UI with noise and slices
+            int sampleCount = channel.apply(symbols, 0, count, samples, 0);
+            int uis = sampleCount / samplesPerUi;
+            int middle = samplesPerUi / 2;
+            for (int i = 0; i < uis; i++) {
+                double level = samples[i * samplesPerUi + middle] + sigma * random.nextGaussian();
+                received[i] = bipolar ? slice(level)
+                        : (level >= 0) ? LineEncoder.HIGH : LineEncoder.LOW;
+            }
+
+            int bits = (descrambler != null)
+                    ? descrambler.decode(received, 0, uis, decoded, 0)
+                    : decoder.decode(received, 0, uis, decoded, 0);
+            compare(bits);
+        }
+
+        private static byte slice(double level) {
+            return (level > AMI_THRESHOLD) ? LineEncoder.HIGH : (level < -AMI_THRESHOLD) ? LineEncoder.LOW : LineEncoder.ZERO;
+        }
+
+        // Appends the ASCII form of the new words behind the bits still in flight
+        private void queueReference() {
+            if (referenceStart > 0) {
+                System.arraycopy(reference, referenceStart, reference, 0, referenceEnd - referenceStart);
+                referenceEnd -= referenceStart;
+                referenceStart = 0;
+            }
+            for (int w = 0; w < BLOCK_WORDS; w++) {
+                long word = words[w];
+                for (int b = 63; b >= 0; b--) {
+                    reference[referenceEnd++] = (byte) ('0' + ((word >>> b) & 1));
+                }
+            }
+        }
+
+        private void compare(int bits) {
+            long mismatches = 0;
+            for (int i = 0; i < bits; i++) {
+                mismatches += (decoded[i] != reference[referenceStart + i]) ? 1 : 0;
+            }
+            referenceStart += bits;
+            errors += mismatches;
+            compared += bits;
+        }
+    }
+
+    /**
+     * Runs one round of links [from, to), splitting in halves down to single links.
+     */
+    private static class RoundTask extends RecursiveAction {
+
+        private final Link[] links;
+        private final int from;
+        private final int to;
+
+        RoundTask(Link[] links, int from, int to) {
+            this.links = links;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                links[from].run();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RoundTask(links, from, mid), new RoundTask(links, mid, to));
+        }
+    }
+}
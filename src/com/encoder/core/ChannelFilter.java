@@ -0,0 +1,261 @@
+package com.encoder.core;
+
+import java.util.Arrays;
+
+/**
+ * Band-limited channel as an FIR filter over oversampled levels, e.g. the output of
+ * JitterChannel or of LineEncoder.encode held for several samples per symbol.
+ * Besides user taps there are designs for a raised-cosine low-pass and an RC
+ * (first-order) low-pass, both with unit DC gain.
+ *
+ * Short filters run as a direct loop. Long ones use overlap-add FFT convolution:
+ * pieces of input are transformed (two per complex FFT), multiplied by the filter
+ * spectrum and transformed back, and the part that spills past a piece is carried
+ * into the next one, across calls. Either way the filter streams: every call returns as many samples as it was
+ * given, with the state carried between calls. Not thread-safe; use copy().
+ */
+public class ChannelFilter {
+
+    // Filters up to this many taps run as a direct loop
+    private static final int DIRECT_MAX_TAPS = 32;
+
+    private final double[] taps;
+    private final int delay;
+
+    // Direct form: the last taps - 1 inputs, oldest first, and scratch for the outputs
+    // that depend on them
+    private double[] history;
+    private double[] head;
+
+    // Overlap-add: FFT of the zero-padded taps, scratch, and the tail carried over
+    private final Fft fft;
+    private final int pieceLength;
+    private double[] filterRe;
+    private double[] filterIm;
+    private double[] re;
+    private double[] im;
+    private double[] overlap;
+
+    public ChannelFilter(double[] taps) {
+        if (taps.length == 0) {
+            throw new IllegalArgumentException("A filter needs at least one tap");
+        }
+        this.taps = taps.clone();
+        this.delay = peak(taps);
+
+        if (taps.length <= DIRECT_MAX_TAPS) {
+            fft = null;
+            pieceLength = 0;
+            history = new double[taps.length - 1];
+            head = new double[taps.length - 1];
+            return;
+        }
+
+        // FFT of at least twice the filter, so at least half of each transform is new input
+        int size = Integer.highestOneBit(2 * taps.length - 1) << 1;
+        fft = new Fft(size);
+        pieceLength = size - taps.length + 1;
+        filterRe = Arrays.copyOf(taps, size);
+        filterIm = new double[size];
+        fft.transform(filterRe, filterIm);
+        re = new double[size];
+        im = new double[size];
+        overlap = new double[taps.length - 1];
+    }
+
+    // Same filter, sharing the precomputed spectrum
+    private ChannelFilter(ChannelFilter filter) {
+        taps = filter.taps;
+        delay = filter.delay;
+        fft = filter.fft;
+        pieceLength = filter.pieceLength;
+        filterRe = filter.filterRe;
+        filterIm = filter.filterIm;
+        if (fft == null) {
+            history = new double[taps.length - 1];
+            head = new double[taps.length - 1];
+        } else {
+            re = new double[fft.size()];
+            im = new double[fft.size()];
+            overlap = new double[taps.length - 1];
+        }
+    }
+
+    /**
+     * Same filter with fresh streaming state.
+     */
+    public ChannelFilter copy() {
+        return new ChannelFilter(this);
+    }
+
+    private static int peak(double[] taps) {
+        int peak = 0;
+        for (int i = 1; i < taps.length; i++) {
+            if (Math.abs(taps[i]) > Math.abs(taps[peak])) {
+                peak = i;
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Raised-cosine low-pass: flat up to (1 - rolloff) * bandwidth, half amplitude at
+     * bandwidth, zero beyond (1 + rolloff) * bandwidth, truncated to spanUis.
+     * @param bandwidth Half-amplitude frequency in multiples of the symbol rate
+     * @param rolloff Excess bandwidth, 0 to 1
+     */
+    public static double[] raisedCosine(int samplesPerUi, double bandwidth, double rolloff, int spanUis) {
+        int count = spanUis * samplesPerUi + 1;
+        double[] taps = new double[count];
+        double period = 1 / (2 * bandwidth); // Of the matching Nyquist pulse, in UI
+        for (int n = 0; n < count; n++) {
+            double t = (n - (count - 1) / 2.0) / samplesPerUi / period;
+            double denominator = 1 - 4 * rolloff * rolloff * t * t;
+            taps[n] = (Math.abs(denominator) < 1e-9)
+                    ? Math.PI / 4 * sinc(1 / (2 * rolloff))
+                    : sinc(t) * Math.cos(Math.PI * rolloff * t) / denominator;
+        }
+        return normalize(taps);
+    }
+
+    /**
+     * First-order RC low-pass with its -3 dB point at cutoff, in multiples of the symbol
+     * rate. The exponential response is cut off once it falls below 1e-4 of its start.
+     */
+    public static double[] rcLowPass(int samplesPerUi, double cutoff) {
+        double decay = Math.exp(-2 * Math.PI * cutoff / samplesPerUi); // Per sample
+        int count = Math.max(1, (int) Math.ceil(Math.log(1e-4) / Math.log(decay)));
+        double[] taps = new double[count];
+        double tap = 1;
+        for (int n = 0; n < count; n++, tap *= decay) {
+            taps[n] = tap;
+        }
+        return normalize(taps);
+    }
+
+    private static double sinc(double x) {
+        return (x == 0) ? 1 : Math.sin(Math.PI * x) / (Math.PI * x);
+    }
+
+    private static double[] normalize(double[] taps) {
+        double sum = 0;
+        for (double tap : taps) {
+            sum += tap;
+        }
+        for (int n = 0; n < taps.length; n++) {
+            taps[n] /= sum;
+        }
+        return taps;
+    }
+
+    public int getTapCount() {
+        return taps.length;
+    }
+
+    /**
+     * Index of the largest tap: how many samples an isolated pulse comes out late.
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    public boolean usesFft() {
+        return fft != null;
+    }
+
+    public void reset() {
+        if (fft == null) {
+            Arrays.fill(history, 0);
+        } else {
+            Arrays.fill(overlap, 0);
+        }
+    }
+
+    /**
+     * Filters in[from, to) into out[offset, offset + to - from). in and out may be the
+     * same array only if offset == from.
+     */
+    public void apply(double[] in, int from, int to, double[] out, int offset) {
+        if (fft == null) {
+            applyDirect(in, from, to, out, offset);
+            return;
+        }
+        for (int start = from; start < to; start += 2 * pieceLength) {
+            int middle = Math.min(start + pieceLength, to);
+            int end = Math.min(middle + pieceLength, to);
+            applyPieces(in, start, middle, end, out, offset + start - from);
+        }
+    }
+
+    private void applyDirect(double[] in, int from, int to, double[] out, int offset) {
+        int memory = history.length;
+        int length = to - from;
+        // Outputs that still reach back into the history, computed before in is overwritten
+        int early = Math.min(memory, length);
+        for (int n = 0; n < early; n++) {
+            double sum = 0;
+            for (int k = 0; k < taps.length; k++) {
+                int i = n - k;
+                sum += taps[k] * ((i >= 0) ? in[from + i] : history[memory + i]);
+            }
+            head[n] = sum;
+        }
+
+        // Keep the last inputs before they may be overwritten by the outputs
+        if (length >= memory) {
+            System.arraycopy(in, to - memory, history, 0, memory);
+        } else {
+            System.arraycopy(history, length, history, 0, memory - length);
+            System.arraycopy(in, from, history, memory - length, length);
+        }
+
+        // The rest only needs the input; run backwards so in-place filtering works
+        for (int n = length - 1; n >= early; n--) {
+            double sum = 0;
+            for (int k = 0; k < taps.length; k++) {
+                sum += taps[k] * in[from + n - k];
+            }
+            out[offset + n] = sum;
+        }
+        System.arraycopy(head, 0, out, offset, early);
+    }
+
+    /**
+     * Filters two consecutive pieces with one complex FFT, the first as the real part
+     * and the second (possibly empty) as the imaginary part. The taps are real, so the
+     * two responses come back separately in re and im.
+     */
+    private void applyPieces(double[] in, int from, int middle, int to, double[] out, int offset) {
+        int size = re.length;
+        System.arraycopy(in, from, re, 0, middle - from);
+        Arrays.fill(re, middle - from, size, 0);
+        System.arraycopy(in, middle, im, 0, to - middle);
+        Arrays.fill(im, to - middle, size, 0);
+
+        fft.transform(re, im);
+        for (int k = 0; k < size; k++) {
+            double r = re[k] * filterRe[k] - im[k] * filterIm[k];
+            im[k] = re[k] * filterIm[k] + im[k] * filterRe[k];
+            re[k] = r;
+        }
+        fft.inverse(re, im);
+
+        emit(re, middle - from, out, offset);
+        if (to > middle) {
+            emit(im, to - middle, out, offset + middle - from);
+        }
+    }
+
+    // response[0, length + taps - 1) is one piece's output: emits the first length
+    // samples plus the carried tail, and carries the rest
+    private void emit(double[] response, int length, double[] out, int offset) {
+        int tail = overlap.length;
+        for (int n = 0; n < length; n++) {
+            out[offset + n] = response[n] + ((n < tail) ? overlap[n] : 0);
+        }
+        for (int n = 0; n < tail; n++) {
+            double carried = (length + n < tail) ? overlap[length + n] : 0;
+            overlap[n] = carried + response[length + n];
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.encoder.core;
+
+/**
+ * Delta modulation: one bit per sample saying whether the input is above (1) or below
+ * (0) the receiver's running estimate, which then moves one step that way. The input
+ * has to be oversampled well above its bandwidth, or the estimate cannot keep up
+ * (slope overload).
+ *
+ * The adaptive variant grows the step by ADAPT_FACTOR while bits repeat and shrinks
+ * it when they alternate, between the given step and MAX_STEP_RATIO times that, so it
+ * follows steep slopes and still idles with small granular noise.
+ */
+public class DeltaModulator extends AnalogEncoder {
+
+    public static final double ADAPT_FACTOR = 1.5;
+    public static final double MAX_STEP_RATIO = 32;
+
+    private final double minStep;
+    private final double maxStep;
+    private final boolean adaptive;
+
+    private double estimate;
+    private double step;
+    private int lastBit = -1;
+
+    /**
+     * @param step Fixed step, or the smallest step when adaptive
+     */
+    public DeltaModulator(double step, boolean adaptive) {
+        super(1);
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("Step must be positive: " + step);
+        }
+        this.minStep = step;
+        this.maxStep = adaptive ? step * MAX_STEP_RATIO : step;
+        this.adaptive = adaptive;
+        this.step = step;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    @Override
+    protected int code(double sample) {
+        int bit = (sample >= estimate) ? 1 : 0;
+        if (adaptive && lastBit >= 0) {
+            step = (bit == lastBit) ? Math.min(step * ADAPT_FACTOR, maxStep) : Math.max(step / ADAPT_FACTOR, minStep);
+        }
+        estimate += (bit != 0) ? step : -step;
+        lastBit = bit;
+        return bit;
+    }
+
+    @Override
+    public double level() {
+        return estimate;
+    }
+
+    @Override
+    protected void resetState() {
+        estimate = 0;
+        step = minStep;
+        lastBit = -1;
+    }
+}
@@ -0,0 +1,427 @@
+package com.encoder.core;
+
+import com.encoder.core.LineDecoder.Violation;
+import com.encoder.core.LineDecoder.ViolationListener;
+import com.encoder.core.StreamingScrambler.Mode;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming inverse of ScrambledAmiEncoder: turns B8ZS/HDB3 AMI symbols back into bits.
+ * Substitutions are spotted by their bipolar violation, as a line receiver does, not by
+ * predicting them from the scrambler's state: an HDB3 V has the polarity of the pulse
+ * before it and sits after 000 (000V) or after B00 with B of its own polarity (B00V);
+ * B8ZS sends 000(-x)x0x(-x), whose second x repeats the first. Whatever matches is
+ * cleared to zeros, so a corrupted symbol only damages the bits around it instead of
+ * throwing a parity count off until another error restores it. Symbols that could
+ * begin a pattern are held back (or looked ahead at, inside one call) until it completes
+ * or is ruled out. Pulses that break the alternation outside a pattern, and zero runs
+ * that should have been substituted, are reported as code violations.
+ *
+ * Away from zero runs the symbols are taken eight at a time: the pulse positions and
+ * polarities are gathered into two bit masks, and the pulses that alternate and come
+ * before anything that could start a substitution are decoded with one table lookup.
+ */
+public class Descrambler {
+
+    private static final int BLOCK_SIZE = 8192;
+
+    // Reads 8 symbols / writes 8 bits at once, first one in the lowest address
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Gathers bit 0 of each byte into an 8-bit mask, byte j to bit j
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long GATHER = 0x0102040810204080L;
+
+    // Per 8-bit pulse mask: pulses of even rank (0th, 2nd, ...) and the decoded bits as ASCII
+    private static final byte[] EVEN_RANK_PULSES = new byte[256];
+    private static final long[] ASCII_BITS = new long[256];
+
+    // Per pulse mask: position of the first pulse that may belong to a substitution even
+    // though the pulses alternate, 8 if none; only the pulses before it can be committed.
+    // A B8ZS pattern (000VB0BV) breaks the alternation three symbols after its first
+    // pulse, so a pulse after three or more zeros is only safe when that falls inside
+    // the block, or when the symbols after the block rule the pattern out. HDB3 patterns
+    // always break the alternation, but a pulse in the last three positions may be the
+    // B of a B00V that ends in the next block, unless another pulse follows it; runs of
+    // four zeros (never sent) are not decoded here either.
+    private static final byte[] B8ZS_LIMIT = new byte[256];
+    private static final byte[] HDB3_LIMIT = new byte[256];
+
+    private final Mode mode;
+    private final int runLength; // 8 for B8ZS, 4 for HDB3
+    // Position of the first bipolar violation in a pattern: 6 in 000VB0BV, 3 in 000V/B00V
+    private final int violationOffset;
+    private final ViolationListener listener;
+
+    // Polarity the next data pulse must not repeat: the last data pulse, or what the
+    // scrambler's state was left at by the last substitution
+    private int lastPolarity = LineEncoder.LOW;
+    // Zeros decoded as data since the last pulse, for excess-zero reports
+    private int zeroRun = 0;
+
+    // Substitution patterns indexed by [polarity < 0]: B8ZS by its first pulse, HDB3 000V
+    // by V (the last polarity), HDB3 B00V by B
+    private static final byte[][] B8ZS_PATTERNS = new byte[2][];
+    private static final byte[][] HDB3_ODD_PATTERNS = new byte[2][];
+    private static final byte[][] HDB3_EVEN_PATTERNS = new byte[2][];
+
+    static {
+        for (int mask = 0; mask < 256; mask++) {
+            int rank = 0;
+            int run = 0;
+            int b8zsLimit = 8;
+            int hdb3Limit = 8;
+            long bits = 0;
+            for (int j = 0; j < 8; j++) {
+                if (((mask >>> j) & 1) != 0) {
+                    if (rank++ % 2 == 0) {
+                        EVEN_RANK_PULSES[mask] |= (byte) (1 << j);
+                    }
+                    if (run >= 3 && j > 4) {
+                        b8zsLimit = Math.min(b8zsLimit, j);
+                    }
+                    if (run >= 4) {
+                        hdb3Limit = Math.min(hdb3Limit, j);
+                    }
+                    run = 0;
+                    bits |= (long) '1' << (8 * j);
+                } else {
+                    run++;
+                    bits |= (long) '0' << (8 * j);
+                }
+            }
+            int highest = (mask == 0) ? 8 : 31 - Integer.numberOfLeadingZeros(mask);
+            if (highest >= 5) {
+                hdb3Limit = Math.min(hdb3Limit, highest);
+            }
+            B8ZS_LIMIT[mask] = (byte) b8zsLimit;
+            HDB3_LIMIT[mask] = (byte) hdb3Limit;
+            ASCII_BITS[mask] = bits;
+        }
+
+        for (int polarity = LineEncoder.LOW; polarity <= LineEncoder.HIGH; polarity += 2) {
+            byte p = (byte) polarity;
+            int sign = (polarity < 0) ? 1 : 0;
+
+            // B8ZS after a pulse of polarity -p: 000VB0BV with V = p, the second B repeating the first
+            B8ZS_PATTERNS[sign] = new byte[]{0, 0, 0, p, (byte) -p, 0, (byte) -p, p};
+            // HDB3: 000V with V repeating the last pulse, B00V with V repeating B
+            HDB3_ODD_PATTERNS[sign] = new byte[]{0, 0, 0, p};
+            HDB3_EVEN_PATTERNS[sign] = new byte[]{p, 0, 0, p};
+        }
+    }
+
+    // Symbols held back because they may still be part of a substitution
+    private final byte[] pending;
+    private int pendingCount = 0;
+    private int pendingZeros = 0;  // Leading zeros in pending (equal to pendingCount when all zero)
+    private long pendingStart = 0; // Stream offset of pending[0]
+
+    private long violations = 0;
+    private byte[] sliced;
+
+    public Descrambler(Mode mode) {
+        this(mode, null);
+    }
+
+    /**
+     * @param listener Receives every code violation, or null to only count them
+     */
+    public Descrambler(Mode mode, ViolationListener listener) {
+        this.mode = mode;
+        this.runLength = (mode == Mode.B8ZS) ? 8 : 4;
+        this.violationOffset = (mode == Mode.B8ZS) ? 6 : 3;
+        this.listener = listener;
+        this.pending = new byte[runLength];
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getViolationCount() {
+        return violations;
+    }
+
+    /**
+     * Largest number of symbols that can be held back between calls.
+     * An output buffer needs room for the input length plus this many bits.
+     */
+    public int maxPending() {
+        return runLength - 1;
+    }
+
+    public void reset() {
+        lastPolarity = LineEncoder.LOW;
+        zeroRun = 0;
+        pendingCount = 0;
+        pendingZeros = 0;
+        pendingStart = 0;
+        violations = 0;
+    }
+
+    /**
+     * Descrambles symbols[from, to) into ASCII bits, starting at out[offset].
+     * @return Number of bits written
+     */
+    public int decode(byte[] symbols, int from, int to, byte[] out, int offset) {
+        int pos = offset;
+        for (int i = from; i < to; i++) {
+            if (pendingCount == 0 && i + 8 <= to && pos + 8 <= out.length) {
+                int consumed = decodeBlock(symbols, i, to, out, pos);
+                if (consumed > 0) {
+                    pos += consumed;
+                    i += consumed - 1;
+                    continue;
+                }
+            }
+
+            byte symbol = symbols[i];
+
+            if (pendingZeros == pendingCount) {
+                if (symbol == LineEncoder.ZERO) {
+                    // Fast path: another zero that cannot complete a run yet
+                    if (pendingCount + 1 < runLength) {
+                        pending[pendingCount++] = symbol;
+                        pendingZeros++;
+                        continue;
+                    }
+                } else if (symbol == -lastPolarity) {
+                    if (!mayStartPattern(symbols, i, to)) {
+                        // Fast path: a pulse that alternates normally and cannot be part of a pattern
+                        for (int z = 0; z < pendingCount; z++) {
+                            pos = zero(out, pos, pendingStart + z);
+                        }
+                        out[pos++] = '1';
+                        pendingStart += pendingCount + 1;
+                        pendingCount = 0;
+                        pendingZeros = 0;
+                        lastPolarity = symbol;
+                        zeroRun = 0;
+                        continue;
+                    }
+                    // The pattern ends four symbols after the first B8ZS pulse, three after B in B00V
+                    int end = i + ((mode == Mode.B8ZS) ? 4 : 3);
+                    if (end < to) {
+                        // Fast path: mayStartPattern saw the whole pattern in this call
+                        int dataZeros = (mode == Mode.B8ZS) ? pendingCount - 3 : pendingCount;
+                        pos = substitute(out, pos, dataZeros, (mode == Mode.B8ZS) ? -symbol : symbol);
+                        i = end;
+                        continue;
+                    }
+                } else if (mode == Mode.HDB3 && pendingCount == 3) {
+                    // Fast path: 000V, V repeating the last polarity
+                    pos = substitute(out, pos, 0, symbol);
+                    continue;
+                }
+            }
+
+            pending[pendingCount++] = symbol;
+            pos = resolve(out, pos);
+            countPendingZeros();
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Descrambles raw sample levels[from, to), slicing each one to -1/0/+1 first.
+     * @return Number of bits written
+     */
+    public int decode(double[] levels, int from, int to, byte[] out, int offset) {
+        if (sliced == null) {
+            sliced = new byte[BLOCK_SIZE];
+        }
+        int pos = offset;
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            int end = Math.min(start + BLOCK_SIZE, to);
+            int count = LineDecoder.slice(levels, start, end, sliced);
+            pos += decode(sliced, 0, count, out, pos);
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Decodes any symbols still held back at the end of the stream as plain AMI.
+     * @return Number of bits written
+     */
+    public int flush(byte[] out, int offset) {
+        int pos = offset;
+        while (pendingCount > 0) {
+            pos = data(out, pos);
+        }
+        pendingZeros = 0;
+        return pos - offset;
+    }
+
+    /**
+     * Decodes the pulses at the start of an 8-symbol block (and the zeros before them)
+     * that cannot be part of a substitution. Zeros after the last committed pulse are
+     * left for the next call, as they may start a pattern.
+     * @return Number of symbols consumed, 0 to fall back to one symbol at a time
+     */
+    private int decodeBlock(byte[] symbols, int i, int to, byte[] out, int pos) {
+        long block = (long) LONG_VIEW.get(symbols, i);
+        int pulses = (int) (((block & LOW_BITS) * GATHER) >>> 56);
+        int negative = (int) ((((block >>> 7) & LOW_BITS) * GATHER) >>> 56);
+
+        // Pulses should alternate starting opposite to the last one; the first that does
+        // not may be the violation of a pattern that started violationOffset before it
+        int evenRank = EVEN_RANK_PULSES[pulses] & 0xFF;
+        int expectedNegative = (lastPolarity > 0) ? evenRank : pulses & ~evenRank;
+        int limit;
+        if (mode == Mode.B8ZS) {
+            limit = B8ZS_LIMIT[pulses];
+            if (limit < 8 && !b8zsPattern(symbols, i + limit, to)) {
+                limit = 8;
+            }
+        } else {
+            limit = HDB3_LIMIT[pulses];
+        }
+        int mismatch = negative ^ expectedNegative;
+        if (mismatch != 0) {
+            limit = Math.min(limit, Integer.numberOfTrailingZeros(mismatch) - violationOffset);
+        }
+        // Zeros already decoded count towards the first run
+        if (limit <= 0 || zeroRun + Integer.numberOfTrailingZeros(pulses | 0x100) >= runLength) {
+            return 0;
+        }
+
+        int committed = pulses & ((1 << limit) - 1);
+        if (committed == 0) {
+            return 0;
+        }
+        int consumed = 32 - Integer.numberOfLeadingZeros(committed);
+
+        LONG_VIEW.set(out, pos, ASCII_BITS[pulses]);
+        if ((Integer.bitCount(committed) & 1) != 0) {
+            lastPolarity = -lastPolarity;
+        }
+        zeroRun = 0;
+        pendingStart += consumed;
+        return consumed;
+    }
+
+    private int resolve(byte[] out, int pos) {
+        while (pendingCount > 0) {
+            byte[] pattern = candidate();
+            int matched = 0;
+            while (matched < pendingCount && pending[matched] == pattern[matched]) {
+                matched++;
+            }
+            if (matched == runLength) {
+                // The violation marks a substitution: all zeros, whatever came before
+                for (int i = 0; i < runLength; i++) {
+                    out[pos++] = '0';
+                }
+                lastPolarity = (mode == Mode.B8ZS) ? pattern[4] : pattern[3];
+                zeroRun = 0;
+                consume(runLength);
+            } else if (matched == pendingCount) {
+                return pos; // Could still be a substitution, wait for more symbols
+            } else {
+                pos = data(out, pos);
+            }
+        }
+        return pos;
+    }
+
+    // The substitution that could start at pending[0], given what is held so far
+    private byte[] candidate() {
+        if (mode == Mode.B8ZS) {
+            // The first pulse fixes the pattern; before it, both begin with 000
+            return B8ZS_PATTERNS[(pendingCount > 3 && pending[3] < 0) ? 1 : 0];
+        }
+        if (pending[0] == LineEncoder.ZERO) {
+            return HDB3_ODD_PATTERNS[(lastPolarity < 0) ? 1 : 0];
+        }
+        return HDB3_EVEN_PATTERNS[(pending[0] < 0) ? 1 : 0];
+    }
+
+    // Whether the alternating pulse symbols[i], after the pending zeros, could be part of
+    // a substitution: for HDB3 only as the B of B00V, for B8ZS only as the first pulse,
+    // after three zeros. The symbols that follow decide it when they are in this call.
+    private boolean mayStartPattern(byte[] symbols, int i, int to) {
+        if (mode == Mode.B8ZS) {
+            return pendingCount >= 3 && b8zsPattern(symbols, i, to);
+        }
+        byte symbol = symbols[i];
+        return i + 3 >= to
+                || (symbols[i + 1] == LineEncoder.ZERO && symbols[i + 2] == LineEncoder.ZERO && symbols[i + 3] == symbol);
+    }
+
+    // Whether the pulse symbols[i] and those after it (up to to) fit the rest of 000VB0BV
+    private static boolean b8zsPattern(byte[] symbols, int i, int to) {
+        byte symbol = symbols[i];
+        return i + 4 >= to
+                || (symbols[i + 1] == -symbol && symbols[i + 2] == LineEncoder.ZERO
+                        && symbols[i + 3] == -symbol && symbols[i + 4] == symbol);
+    }
+
+    // Decodes the pending zeros before a substitution that ends at the current symbol,
+    // dataZeros of them as data and the rest as part of it, then the substitution
+    private int substitute(byte[] out, int pos, int dataZeros, int polarity) {
+        for (int z = 0; z < dataZeros; z++) {
+            pos = zero(out, pos, pendingStart + z);
+        }
+        for (int z = 0; z < runLength; z++) {
+            out[pos++] = '0';
+        }
+        pendingStart += dataZeros + runLength;
+        pendingCount = 0;
+        pendingZeros = 0;
+        lastPolarity = polarity;
+        zeroRun = 0;
+        return pos;
+    }
+
+    // Decodes pending[0] as plain AMI data
+    private int data(byte[] out, int pos) {
+        byte symbol = pending[0];
+        if (symbol == LineEncoder.ZERO) {
+            pos = zero(out, pos, pendingStart);
+        } else {
+            if (symbol != -lastPolarity) {
+                report(pendingStart, Violation.BIPOLAR_VIOLATION);
+            }
+            out[pos++] = '1';
+            lastPolarity = symbol;
+            zeroRun = 0;
+        }
+        consume(1);
+        return pos;
+    }
+
+    // A data zero at symbolOffset; a full run of them should have been substituted
+    private int zero(byte[] out, int pos, long symbolOffset) {
+        out[pos++] = '0';
+        if (++zeroRun == runLength) {
+            report(symbolOffset - runLength + 1, Violation.EXCESS_ZEROS);
+            zeroRun = 0;
+        }
+        return pos;
+    }
+
+    private void countPendingZeros() {
+        int zeros = 0;
+        while (zeros < pendingCount && pending[zeros] == LineEncoder.ZERO) {
+            zeros++;
+        }
+        pendingZeros = zeros;
+    }
+
+    private void consume(int count) {
+        System.arraycopy(pending, count, pending, 0, pendingCount - count);
+        pendingCount -= count;
+        pendingStart += count;
+    }
+
+    private void report(long symbolOffset, Violation kind) {
+        violations++;
+        if (listener != null) {
+            listener.violation(symbolOffset, kind);
+        }
+    }
+}
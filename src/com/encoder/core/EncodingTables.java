@@ -0,0 +1,228 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Byte-at-a-time encoding kernels for packed input (8 bits per byte, MSB first).
+ * Each table is indexed by byte value and holds the 8 symbols of that byte packed
+ * into a long (two longs for the biphase codes), so a whole input byte is encoded
+ * with one lookup and one 8-byte store instead of 8 branches.
+ *
+ * The stateful tables are built for an incoming state of +1. Starting from -1 only
+ * negates the pulses, so the kernels carry the state as a flip mask and apply it with
+ * an XOR (0x01 ^ 0xFE = 0xFF, i.e. +1 becomes -1 and back). A matching FLIP table
+ * gives the outgoing state, which keeps the table loads off the loop-carried chain.
+ */
+final class EncodingTables {
+
+    // Writes a long into a byte[] as 8 consecutive symbols, first symbol in the lowest address
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // XOR mask that negates 8 non-zero symbols
+    private static final long NEGATE_ALL = 0xFEFEFEFEFEFEFEFEL;
+
+    private static final long[] NRZL = new long[256];
+    private static final long[] NRZI = new long[256];
+    private static final long[] MANCHESTER = new long[512];
+    private static final long[] DIFF_MANCHESTER = new long[512];
+    private static final long[] AMI = new long[256];
+
+    // -1 where a byte flips the state, 0 where it keeps it
+    private static final long[] NRZI_FLIP = new long[256];
+    private static final long[] DIFF_MANCHESTER_FLIP = new long[256];
+    private static final long[] AMI_FLIP = new long[256];
+
+    // Negation mask covering only the pulses of an AMI byte (zeros stay zero)
+    private static final long[] AMI_PULSES = new long[256];
+
+    static {
+        byte[] bits = new byte[8];
+        byte[] symbols = new byte[16];
+        AsciiBits chars = new AsciiBits().wrap(bits, 0, 8);
+        int[] pulse = new int[1];
+
+        for (int value = 0; value < 256; value++) {
+            for (int i = 0; i < 8; i++) {
+                bits[i] = (byte) (((value >>> (7 - i)) & 1) == 0 ? '0' : '1');
+            }
+
+            LineEncoder.nrzl(chars, 0, 8, symbols, 0);
+            NRZL[value] = pack(symbols, 0);
+
+            LineEncoder.manchester(chars, 0, 8, symbols, 0);
+            MANCHESTER[value * 2] = pack(symbols, 0);
+            MANCHESTER[value * 2 + 1] = pack(symbols, 8);
+
+            NRZI_FLIP[value] = flip(LineEncoder.nrzi(chars, 0, 8, symbols, 0, LineEncoder.HIGH));
+            NRZI[value] = pack(symbols, 0);
+
+            DIFF_MANCHESTER_FLIP[value] = flip(LineEncoder.diffManchester(chars, 0, 8, symbols, 0, LineEncoder.HIGH));
+            DIFF_MANCHESTER[value * 2] = pack(symbols, 0);
+            DIFF_MANCHESTER[value * 2 + 1] = pack(symbols, 8);
+
+            pulse[0] = LineEncoder.HIGH;
+            LineEncoder.ami(chars, 0, 8, symbols, 0, pulse);
+            AMI_FLIP[value] = flip(pulse[0]);
+            AMI[value] = pack(symbols, 0);
+            for (int i = 0; i < 8; i++) {
+                symbols[i] = (symbols[i] != LineEncoder.ZERO) ? (byte) 0xFE : 0;
+            }
+            AMI_PULSES[value] = pack(symbols, 0);
+        }
+    }
+
+    private EncodingTables() {
+    }
+
+    private static long flip(int state) {
+        return (state == LineEncoder.HIGH) ? 0L : -1L;
+    }
+
+    private static int state(long flip) {
+        return (flip == 0L) ? LineEncoder.HIGH : LineEncoder.LOW;
+    }
+
+    private static long pack(byte[] symbols, int offset) {
+        return (long) LONG_VIEW.get(symbols, offset);
+    }
+
+    /**
+     * AMI symbols of one byte after a pulse of polarity lastPulse (zero bits stay zero).
+     */
+    static long amiSymbols(int value, int lastPulse) {
+        return AMI[value] ^ (flip(lastPulse) & AMI_PULSES[value]);
+    }
+
+    /**
+     * Polarity of the last pulse after one AMI byte.
+     */
+    static int amiNext(int value, int lastPulse) {
+        return (AMI_FLIP[value] == 0L) ? lastPulse : -lastPulse;
+    }
+
+    /**
+     * Encodes packed[from, to) into out starting at off, continuing from the given state.
+     * Goes through VectorKernels when they are available for the scheme.
+     * @return The state after the last bit
+     */
+    static int encode(byte[] packed, int from, int to, Scheme scheme, byte[] out, int off, int state) {
+        if (VectorSupport.ENABLED && VectorKernels.supports(scheme)) {
+            return VectorKernels.encode(packed, from, to, scheme, out, off, state);
+        }
+        return encodeScalar(packed, from, to, scheme, out, off, state);
+    }
+
+    /**
+     * Same as encode, widening the symbols to float levels.
+     * @return The state after the last bit
+     */
+    static int encode(byte[] packed, int from, int to, Scheme scheme, float[] out, int off, int state) {
+        if (VectorSupport.ENABLED && VectorKernels.supports(scheme)) {
+            return VectorKernels.encode(packed, from, to, scheme, out, off, state);
+        }
+        return encodeScalar(packed, from, to, scheme, out, off, state);
+    }
+
+    /**
+     * Table-only version of encode.
+     */
+    static int encodeScalar(byte[] packed, int from, int to, Scheme scheme, byte[] out, int off, int state) {
+        long flip = flip(state);
+        switch (scheme) {
+            case NRZ_L:
+                for (int i = from; i < to; i++, off += 8) {
+                    LONG_VIEW.set(out, off, NRZL[packed[i] & 0xFF]);
+                }
+                return state;
+            case NRZ_I:
+                for (int i = from; i < to; i++, off += 8) {
+                    int value = packed[i] & 0xFF;
+                    LONG_VIEW.set(out, off, NRZI[value] ^ (flip & NEGATE_ALL));
+                    flip ^= NRZI_FLIP[value];
+                }
+                return state(flip);
+            case MANCHESTER:
+                for (int i = from; i < to; i++, off += 16) {
+                    int index = (packed[i] & 0xFF) * 2;
+                    LONG_VIEW.set(out, off, MANCHESTER[index]);
+                    LONG_VIEW.set(out, off + 8, MANCHESTER[index + 1]);
+                }
+                return state;
+            case DIFF_MANCHESTER:
+                for (int i = from; i < to; i++, off += 16) {
+                    int value = packed[i] & 0xFF;
+                    long negate = flip & NEGATE_ALL;
+                    LONG_VIEW.set(out, off, DIFF_MANCHESTER[value * 2] ^ negate);
+                    LONG_VIEW.set(out, off + 8, DIFF_MANCHESTER[value * 2 + 1] ^ negate);
+                    flip ^= DIFF_MANCHESTER_FLIP[value];
+                }
+                return state(flip);
+            case AMI:
+                for (int i = from; i < to; i++, off += 8) {
+                    int value = packed[i] & 0xFF;
+                    LONG_VIEW.set(out, off, AMI[value] ^ (flip & AMI_PULSES[value]));
+                    flip ^= AMI_FLIP[value];
+                }
+                return state(flip);
+            default:
+                return state;
+        }
+    }
+
+    /**
+     * Table-only version of encode into float levels, widening each table long in place.
+     */
+    static int encodeScalar(byte[] packed, int from, int to, Scheme scheme, float[] out, int off, int state) {
+        long flip = flip(state);
+        switch (scheme) {
+            case NRZ_L:
+                for (int i = from; i < to; i++, off += 8) {
+                    widen(NRZL[packed[i] & 0xFF], out, off);
+                }
+                return state;
+            case NRZ_I:
+                for (int i = from; i < to; i++, off += 8) {
+                    int value = packed[i] & 0xFF;
+                    widen(NRZI[value] ^ (flip & NEGATE_ALL), out, off);
+                    flip ^= NRZI_FLIP[value];
+                }
+                return state(flip);
+            case MANCHESTER:
+                for (int i = from; i < to; i++, off += 16) {
+                    int index = (packed[i] & 0xFF) * 2;
+                    widen(MANCHESTER[index], out, off);
+                    widen(MANCHESTER[index + 1], out, off + 8);
+                }
+                return state;
+            case DIFF_MANCHESTER:
+                for (int i = from; i < to; i++, off += 16) {
+                    int value = packed[i] & 0xFF;
+                    long negate = flip & NEGATE_ALL;
+                    widen(DIFF_MANCHESTER[value * 2] ^ negate, out, off);
+                    widen(DIFF_MANCHESTER[value * 2 + 1] ^ negate, out, off + 8);
+                    flip ^= DIFF_MANCHESTER_FLIP[value];
+                }
+                return state(flip);
+            case AMI:
+                for (int i = from; i < to; i++, off += 8) {
+                    int value = packed[i] & 0xFF;
+                    widen(AMI[value] ^ (flip & AMI_PULSES[value]), out, off);
+                    flip ^= AMI_FLIP[value];
+                }
+                return state(flip);
+            default:
+                return state;
+        }
+    }
+
+    // The 8 symbols of a table long as levels, first symbol (lowest byte) first
+    private static void widen(long symbols, float[] out, int off) {
+        for (int k = 0; k < 8; k++) {
+            out[off + k] = (byte) (symbols >>> (8 * k));
+        }
+    }
+}
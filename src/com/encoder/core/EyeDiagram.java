@@ -0,0 +1,144 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Eye-diagram density: a histogram of oversampled channel output folded onto one UI,
+ * counts[column][row], one column per sample of the UI and rows covering
+ * [minLevel, maxLevel] (samples outside are clamped to the edge rows).
+ *
+ * Samples can be added in chunks of any size; the column phase carries over. For
+ * large runs, simulate() accumulates on all cores with one histogram per task and
+ * merges them at the end.
+ */
+public class EyeDiagram {
+
+    private final int columns;
+    private final int rows;
+    private final double minLevel;
+    private final double maxLevel;
+    private final double rowScale;
+    private final int[][] counts;
+
+    private int column; // Column of the next sample
+    private long sampleCount;
+
+    public EyeDiagram(int columns, int rows, double minLevel, double maxLevel) {
+        if (columns < 1 || rows < 1 || !(maxLevel > minLevel)) {
+            throw new IllegalArgumentException("Bad eye diagram shape: " + columns + "x" + rows
+                    + " over [" + minLevel + ", " + maxLevel + "]");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+        this.rowScale = rows / (maxLevel - minLevel);
+        this.counts = new int[columns][rows];
+    }
+
+    public EyeDiagram(JitterChannel channel, int rows, double minLevel, double maxLevel) {
+        this(channel.getSamplesPerUi(), rows, minLevel, maxLevel);
+    }
+
+    /**
+     * Eye diagram of uiCount random symbols of a scheme through a channel, computed on
+     * pool. One UI per column of the channel's samples.
+     */
+    public static EyeDiagram simulate(Scheme scheme, long uiCount, JitterChannel channel,
+                                      int rows, double minLevel, double maxLevel, long seed, ForkJoinPool pool) {
+        return simulate(scheme, uiCount, channel, null, rows, minLevel, maxLevel, seed, pool);
+    }
+
+    /**
+     * Same as above, with the channel output band-limited by filter (null for none).
+     * The filter delay is skipped, so the eye stays centred on the UI.
+     */
+    public static EyeDiagram simulate(Scheme scheme, long uiCount, JitterChannel channel, ChannelFilter filter,
+                                      int rows, double minLevel, double maxLevel, long seed, ForkJoinPool pool) {
+        return EyeSimulation.run(scheme, uiCount, channel, filter, rows, minLevel, maxLevel, seed, pool);
+    }
+
+    public void accept(double[] samples, int offset, int length) {
+        int c = column;
+        int[] columnCounts = counts[c];
+        for (int i = offset; i < offset + length; i++) {
+            int row = (int) ((samples[i] - minLevel) * rowScale);
+            columnCounts[Math.max(0, Math.min(rows - 1, row))]++;
+            if (++c == columns) {
+                c = 0;
+            }
+            columnCounts = counts[c];
+        }
+        column = c;
+        sampleCount += length;
+    }
+
+    /**
+     * Adds the counts of another eye diagram of the same shape.
+     */
+    public void merge(EyeDiagram other) {
+        if (other.columns != columns || other.rows != rows) {
+            throw new IllegalArgumentException("Eye diagram shapes differ");
+        }
+        for (int c = 0; c < columns; c++) {
+            int[] to = counts[c];
+            int[] from = other.counts[c];
+            for (int r = 0; r < rows; r++) {
+                to[r] += from[r];
+            }
+        }
+        sampleCount += other.sampleCount;
+    }
+
+    public void reset() {
+        for (int[] columnCounts : counts) {
+            Arrays.fill(columnCounts, 0);
+        }
+        column = 0;
+        sampleCount = 0;
+    }
+
+    /**
+     * The histogram itself, counts[column][row] with row 0 at minLevel. Not a copy.
+     */
+    public int[][] getCounts() {
+        return counts;
+    }
+
+    public int getMaxCount() {
+        int max = 0;
+        for (int[] columnCounts : counts) {
+            for (int count : columnCounts) {
+                max = Math.max(max, count);
+            }
+        }
+        return max;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public double getMinLevel() {
+        return minLevel;
+    }
+
+    public double getMaxLevel() {
+        return maxLevel;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getUiCount() {
+        return sampleCount / columns;
+    }
+}
@@ -0,0 +1,135 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel eye-diagram accumulation for EyeDiagram.simulate. The UIs are cut into
+ * chunks; each chunk draws its own random bits, encodes them, passes them through its
+ * own split of the channel (and copy of the filter) and folds the samples into its
+ * own histogram, so tasks share nothing until the histograms are merged in chunk
+ * order at the end.
+ */
+final class EyeSimulation {
+
+    // Below this many UIs per chunk the fork/join overhead is not worth it
+    private static final long MIN_CHUNK_UIS = 1 << 16;
+
+    // Packed input bytes per block; keeps the sample buffer within the L2 cache
+    private static final int BLOCK_BYTES = 64;
+
+    private EyeSimulation() {
+    }
+
+    static EyeDiagram run(Scheme scheme, long uiCount, JitterChannel channel, ChannelFilter filter,
+                          int rows, double minLevel, double maxLevel, long seed, ForkJoinPool pool) {
+        long chunkUis = Math.max(MIN_CHUNK_UIS, uiCount / (pool.getParallelism() * 4L));
+        int chunkCount = (int) Math.max(1, (uiCount + chunkUis - 1) / chunkUis);
+
+        // Random streams are split up front, so the result does not depend on scheduling
+        SplittableRandom bits = new SplittableRandom(seed);
+        Chunk[] chunks = new Chunk[chunkCount];
+        for (int k = 0; k < chunkCount; k++) {
+            long uis = Math.min(chunkUis, uiCount - k * chunkUis);
+            chunks[k] = new Chunk(scheme, uis, channel.split(), (filter == null) ? null : filter.copy(),
+                    bits.split(), new EyeDiagram(channel, rows, minLevel, maxLevel));
+        }
+
+        if (chunkCount == 1) {
+            chunks[0].run();
+        } else {
+            pool.invoke(new ChunkTask(chunks, 0, chunkCount));
+        }
+
+        EyeDiagram eye = new EyeDiagram(channel, rows, minLevel, maxLevel);
+        for (Chunk chunk : chunks) {
+            eye.merge(chunk.eye);
+        }
+        return eye;
+    }
+
+    private static final class Chunk {
+
+        final Scheme scheme;
+        final long uiCount;
+        final JitterChannel channel;
+        final ChannelFilter filter;
+        final SplittableRandom random;
+        final EyeDiagram eye;
+
+        int skip; // Filter delay still to drop
+
+        Chunk(Scheme scheme, long uiCount, JitterChannel channel, ChannelFilter filter,
+              SplittableRandom random, EyeDiagram eye) {
+            this.scheme = scheme;
+            this.uiCount = uiCount;
+            this.channel = channel;
+            this.filter = filter;
+            this.random = random;
+            this.eye = eye;
+            this.skip = (filter == null) ? 0 : filter.getDelay();
+        }
+
+        void run() {
+            StreamingEncoder encoder = new StreamingEncoder(scheme);
+            int symbolsPerByte = 8 * LineEncoder.symbolsPerBit(scheme);
+            byte[] packed = new byte[BLOCK_BYTES];
+            byte[] symbols = new byte[BLOCK_BYTES * symbolsPerByte];
+            double[] samples = new double[channel.maxOutputLength(symbols.length)];
+
+            long remaining = uiCount;
+            while (remaining > 0) {
+                int bytes = (int) Math.min(BLOCK_BYTES, (remaining + symbolsPerByte - 1) / symbolsPerByte);
+                for (int i = 0; i < bytes; i += 8) {
+                    long word = random.nextLong();
+                    for (int k = 0; k < 8 && i + k < bytes; k++) {
+                        packed[i + k] = (byte) (word >>> (8 * k));
+                    }
+                }
+                int count = (int) Math.min(encoder.encodePacked(packed, 0, bytes, symbols, 0), remaining);
+                fold(samples, channel.apply(symbols, 0, count, samples, 0));
+                remaining -= count;
+            }
+            fold(samples, channel.flush(samples, 0));
+        }
+
+        // Filters channel output in place and adds it to the eye
+        private void fold(double[] samples, int length) {
+            if (filter != null) {
+                filter.apply(samples, 0, length, samples, 0);
+            }
+            int skipped = Math.min(skip, length);
+            skip -= skipped;
+            eye.accept(samples, skipped, length - skipped);
+        }
+    }
+
+    /**
+     * Runs chunks [from, to), splitting in halves down to single chunks.
+     */
+    private static class ChunkTask extends RecursiveAction {
+
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(Chunk[] chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                chunks[from].run();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(chunks, from, mid), new ChunkTask(chunks, mid, to));
+        }
+    }
+}
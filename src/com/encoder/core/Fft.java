@@ -0,0 +1,104 @@
+package com.encoder.core;
+
+/**
+ * In-place radix-2 complex FFT of a fixed power-of-two size, on separate real and
+ * imaginary double arrays. Twiddle factors and the bit-reversal permutation are
+ * computed once, so one instance can transform any number of blocks (from any
+ * number of threads, as it holds no mutable state).
+ */
+public final class Fft {
+
+    private final int size;
+    private final int[] reversed;
+    private final double[] cos;
+    private final double[] sin;
+
+    public Fft(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two >= 2, not " + size);
+        }
+        this.size = size;
+
+        int bits = Integer.numberOfTrailingZeros(size);
+        reversed = new int[size];
+        for (int i = 0; i < size; i++) {
+            reversed[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+
+        // Twiddles of the stage combining blocks of half are at [half, 2 * half),
+        // so every stage reads them sequentially
+        cos = new double[size];
+        sin = new double[size];
+        for (int half = 1; half < size; half *= 2) {
+            for (int k = 0; k < half; k++) {
+                double angle = -Math.PI * k / half;
+                cos[half + k] = Math.cos(angle);
+                sin[half + k] = Math.sin(angle);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forward transform of re[0, size) + i * im[0, size), in place.
+     */
+    public void transform(double[] re, double[] im) {
+        for (int i = 0; i < size; i++) {
+            int j = reversed[i];
+            if (j > i) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+
+        // First stage: all twiddles are 1
+        for (int a = 0; a < size; a += 2) {
+            double tr = re[a + 1];
+            double ti = im[a + 1];
+            re[a + 1] = re[a] - tr;
+            im[a + 1] = im[a] - ti;
+            re[a] += tr;
+            im[a] += ti;
+        }
+
+        for (int half = 2; half < size; half *= 2) {
+            for (int start = 0; start < size; start += 2 * half) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[half + k];
+                    double wi = sin[half + k];
+                    int a = start + k;
+                    int b = a + half;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+
+    /**
+     * Inverse transform, in place, including the 1/size scaling.
+     */
+    public void inverse(double[] re, double[] im) {
+        // Conjugate, forward, conjugate and scale
+        for (int i = 0; i < size; i++) {
+            im[i] = -im[i];
+        }
+        transform(re, im);
+        double scale = 1.0 / size;
+        for (int i = 0; i < size; i++) {
+            re[i] *= scale;
+            im[i] = -im[i] * scale;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.encoder.core;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Channel model between the encoder and the receiver: oversamples encoded symbols
+ * (one unit interval, UI, per symbol) and adds timing jitter to every transition and
+ * Gaussian noise to every sample.
+ *
+ * Jitter is in UI and has three parts: random jitter (Gaussian, rms), periodic jitter
+ * (a sine of the given amplitude and period in UIs) and duty-cycle distortion (rising
+ * edges late, falling edges early, by half the value each). Transitions are linear
+ * ramps of riseTime UI centred on the jittered edge. The total edge offset is clipped
+ * to half a UI so an edge never leaves its own pair of UIs.
+ *
+ * Random jitter and sample noise are exact Gaussian draws, tails included.
+ * SplittableRandom.nextGaussian is a ziggurat sampler (McFarland's, since JDK 17), so
+ * drawing one per sample costs a few nanoseconds.
+ *
+ * Streaming: a UI is emitted once the next symbol is known, so output lags input by
+ * one symbol. Not thread-safe; use split() for independent copies.
+ */
+public class JitterChannel {
+
+    private static final double MAX_EDGE_OFFSET = 0.5;
+
+    private final int samplesPerUi;
+    private final double randomJitter;
+    private final double periodicJitter;
+    private final double periodicJitterPeriod;
+    private final double dutyCycleDistortion;
+    private final double noise;
+    private final double riseTime;
+    private final SplittableRandom random;
+
+    private final double[] sampleTimes; // Sample positions within a UI, in UI
+
+    // Streaming state: the UI waiting for its successor, and the one before it
+    private boolean started;
+    private double previousLevel;
+    private double level;
+    private double edge; // Offset of the transition into the waiting UI
+
+    // Periodic jitter phase of the UI after the waiting one, advanced by rotation
+    private final double stepCos;
+    private final double stepSin;
+    private double phaseCos;
+    private double phaseSin;
+
+    /**
+     * @param samplesPerUi Samples per symbol
+     * @param randomJitter Random jitter, rms in UI
+     * @param periodicJitter Periodic jitter amplitude in UI
+     * @param periodicJitterPeriod Period of the periodic jitter in UIs
+     * @param dutyCycleDistortion Rising minus falling edge delay in UI
+     * @param noise Gaussian noise, rms in signal levels
+     * @param riseTime 0-100% transition time in UI
+     */
+    public JitterChannel(int samplesPerUi, double randomJitter, double periodicJitter, double periodicJitterPeriod,
+                         double dutyCycleDistortion, double noise, double riseTime, long seed) {
+        this(samplesPerUi, randomJitter, periodicJitter, periodicJitterPeriod, dutyCycleDistortion, noise, riseTime,
+                new SplittableRandom(seed));
+    }
+
+    private JitterChannel(int samplesPerUi, double randomJitter, double periodicJitter, double periodicJitterPeriod,
+                          double dutyCycleDistortion, double noise, double riseTime, SplittableRandom random) {
+        if (samplesPerUi < 1) {
+            throw new IllegalArgumentException("Need at least one sample per UI, not " + samplesPerUi);
+        }
+        if (riseTime < 0 || riseTime > 1) {
+            throw new IllegalArgumentException("Rise time must be within [0, 1] UI, not " + riseTime);
+        }
+        this.samplesPerUi = samplesPerUi;
+        this.randomJitter = randomJitter;
+        this.periodicJitter = periodicJitter;
+        this.periodicJitterPeriod = periodicJitterPeriod;
+        this.dutyCycleDistortion = dutyCycleDistortion;
+        this.noise = noise;
+        this.riseTime = riseTime;
+        this.random = random;
+
+        double step = (periodicJitterPeriod != 0) ? 2 * Math.PI / periodicJitterPeriod : 0;
+        stepCos = Math.cos(step);
+        stepSin = Math.sin(step);
+        resetPhase();
+
+        sampleTimes = new double[samplesPerUi];
+        for (int j = 0; j < samplesPerUi; j++) {
+            sampleTimes[j] = (j + 0.5) / samplesPerUi;
+        }
+    }
+
+    /**
+     * Same settings, an independent random stream and fresh streaming state.
+     */
+    public JitterChannel split() {
+        return new JitterChannel(samplesPerUi, randomJitter, periodicJitter, periodicJitterPeriod,
+                dutyCycleDistortion, noise, riseTime, random.split());
+    }
+
+    public int getSamplesPerUi() {
+        return samplesPerUi;
+    }
+
+    public void reset() {
+        started = false;
+        resetPhase();
+    }
+
+    private void resetPhase() {
+        phaseCos = stepCos;
+        phaseSin = stepSin;
+    }
+
+    /**
+     * Largest number of samples apply() writes for length symbols.
+     */
+    public int maxOutputLength(int length) {
+        return (length + 1) * samplesPerUi;
+    }
+
+    /**
+     * Passes symbols[from, to) through the channel.
+     * @return Number of samples written to out, a multiple of samplesPerUi
+     */
+    public int apply(byte[] symbols, int from, int to, double[] out, int offset) {
+        int pos = offset;
+        for (int i = from; i < to; i++) {
+            double next = symbols[i];
+            if (!started) {
+                previousLevel = next;
+                level = next;
+                edge = 0;
+                started = true;
+                continue;
+            }
+            double nextEdge = (next != level) ? edgeOffset(next > level) : 0;
+            emit(next, nextEdge, out, pos);
+            pos += samplesPerUi;
+
+            previousLevel = level;
+            level = next;
+            edge = nextEdge;
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Emits the last UI, as if the line stayed at its level.
+     * @return Number of samples written to out
+     */
+    public int flush(double[] out, int offset) {
+        if (!started) return 0;
+        emit(level, 0, out, offset);
+        started = false;
+        return samplesPerUi;
+    }
+
+    // Jitter of the transition at the start of the UI after the waiting one
+    private double edgeOffset(boolean rising) {
+        double offset = (rising ? 0.5 : -0.5) * dutyCycleDistortion;
+        if (randomJitter != 0) {
+            offset += randomJitter * random.nextGaussian();
+        }
+        if (periodicJitter != 0) {
+            offset += periodicJitter * phaseSin;
+        }
+        return Math.max(-MAX_EDGE_OFFSET, Math.min(MAX_EDGE_OFFSET, offset));
+    }
+
+    // Samples of the waiting UI: its level, with the ramp in from the previous level at
+    // the start and the ramp out to the next level at the end, over the samples they reach
+    private void emit(double next, double nextEdge, double[] out, int pos) {
+        Arrays.fill(out, pos, pos + samplesPerUi, level);
+        if (level != previousLevel) {
+            double step = level - previousLevel;
+            int end = Math.min(samplesPerUi, (int) Math.ceil((edge + riseTime / 2) * samplesPerUi));
+            for (int j = 0; j < end; j++) {
+                out[pos + j] = previousLevel + step * ramp(sampleTimes[j] - edge);
+            }
+        }
+        if (next != level) {
+            double step = next - level;
+            int start = Math.max(0, (int) Math.floor((1 + nextEdge - riseTime / 2) * samplesPerUi) - 1);
+            for (int j = start; j < samplesPerUi; j++) {
+                out[pos + j] += step * ramp(sampleTimes[j] - 1 - nextEdge);
+            }
+        }
+        if (noise != 0) {
+            addNoise(out, pos);
+        }
+        advancePhase();
+    }
+
+    // Rotates the periodic jitter phase by one UI, pulling it back to the unit circle
+    private void advancePhase() {
+        double c = phaseCos * stepCos - phaseSin * stepSin;
+        double s = phaseSin * stepCos + phaseCos * stepSin;
+        double correction = 1.5 - 0.5 * (c * c + s * s);
+        phaseCos = c * correction;
+        phaseSin = s * correction;
+    }
+
+    private void addNoise(double[] out, int pos) {
+        for (int j = pos; j < pos + samplesPerUi; j++) {
+            out[j] += noise * random.nextGaussian();
+        }
+    }
+
+    // Fraction of a transition done at time x after its centre
+    private double ramp(double x) {
+        if (riseTime == 0) {
+            return (x >= 0) ? 1 : 0;
+        }
+        return Math.max(0, Math.min(1, x / riseTime + 0.5));
+    }
+}
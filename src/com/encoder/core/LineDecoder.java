@@ -0,0 +1,211 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+/**
+ * Streaming decoder for the LineEncoder schemes.
+ * Takes symbols (-1/0/+1) or raw sample levels, writes ASCII '0'/'1' bits, and keeps
+ * its state between calls so captures can be fed in chunks of any size.
+ * Anything the encoder could not have produced is reported as a code violation
+ * together with its symbol offset in the stream.
+ */
+public class LineDecoder {
+
+    public enum Violation {
+        INVALID_LEVEL,      // Zero level in a two-level code
+        MISSING_TRANSITION, // No mid-bit transition in a Manchester code
+        BIPOLAR_VIOLATION,  // Two AMI pulses of the same polarity in a row
+        EXCESS_ZEROS        // A zero run that B8ZS/HDB3 would have substituted
+    }
+
+    public interface ViolationListener {
+        void violation(long symbolOffset, Violation kind);
+    }
+
+    // Sample levels within this distance of 0V slice to the zero symbol
+    private static final double ZERO_BAND = 0.5;
+    private static final int BLOCK_SIZE = 8192;
+
+    private final Scheme scheme;
+    private final ViolationListener listener;
+
+    private int state;            // Previous level (NRZ-I, Diff. Manchester) or last pulse (AMI)
+    private int halfSymbol;       // First half of a biphase bit split across calls
+    private boolean hasHalfSymbol = false;
+    private long position = 0;    // Symbols consumed so far
+    private long violations = 0;
+
+    private byte[] sliced;
+
+    public LineDecoder(Scheme scheme) {
+        this(scheme, null);
+    }
+
+    /**
+     * @param listener Receives every code violation, or null to only count them
+     */
+    public LineDecoder(Scheme scheme, ViolationListener listener) {
+        this.scheme = scheme;
+        this.listener = listener;
+        this.state = LineEncoder.initialState(scheme);
+    }
+
+    public Scheme getScheme() {
+        return scheme;
+    }
+
+    public long getViolationCount() {
+        return violations;
+    }
+
+    public void reset() {
+        state = LineEncoder.initialState(scheme);
+        hasHalfSymbol = false;
+        position = 0;
+        violations = 0;
+    }
+
+    /**
+     * Decodes symbols[from, to) into ASCII bits, starting at out[offset].
+     * @return Number of bits written
+     */
+    public int decode(byte[] symbols, int from, int to, byte[] out, int offset) {
+        switch (scheme) {
+            case NRZ_L:
+                return nrzl(symbols, from, to, out, offset);
+            case NRZ_I:
+                return nrzi(symbols, from, to, out, offset);
+            case MANCHESTER:
+            case DIFF_MANCHESTER:
+                return biphase(symbols, from, to, out, offset);
+            case AMI:
+                return ami(symbols, from, to, out, offset);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Decodes raw sample levels[from, to), slicing each one to -1/0/+1 first.
+     * @return Number of bits written
+     */
+    public int decode(double[] levels, int from, int to, byte[] out, int offset) {
+        if (sliced == null) {
+            sliced = new byte[BLOCK_SIZE];
+        }
+        int pos = offset;
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            int end = Math.min(start + BLOCK_SIZE, to);
+            int count = slice(levels, start, end, sliced);
+            pos += decode(sliced, 0, count, out, pos);
+        }
+        return pos - offset;
+    }
+
+    static int slice(double[] levels, int from, int to, byte[] symbols) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            double level = levels[i];
+            symbols[count++] = (level > ZERO_BAND) ? LineEncoder.HIGH : (level < -ZERO_BAND) ? LineEncoder.LOW : LineEncoder.ZERO;
+        }
+        return count;
+    }
+
+    private void report(long symbolOffset, Violation kind) {
+        violations++;
+        if (listener != null) {
+            listener.violation(symbolOffset, kind);
+        }
+    }
+
+    // NRZ-L: High = 0, Low = 1
+    private int nrzl(byte[] symbols, int from, int to, byte[] out, int offset) {
+        int pos = offset;
+        for (int i = from; i < to; i++) {
+            byte symbol = symbols[i];
+            if (symbol == LineEncoder.ZERO) {
+                report(position + i - from, Violation.INVALID_LEVEL);
+            }
+            out[pos++] = (symbol > 0) ? (byte) '0' : (byte) '1';
+        }
+        position += to - from;
+        return pos - offset;
+    }
+
+    // NRZ-I: a change of level = 1, no change = 0
+    private int nrzi(byte[] symbols, int from, int to, byte[] out, int offset) {
+        int pos = offset;
+        int previous = state;
+        for (int i = from; i < to; i++) {
+            int symbol = symbols[i];
+            if (symbol == LineEncoder.ZERO) {
+                report(position + i - from, Violation.INVALID_LEVEL);
+                symbol = previous; // Treat as no change
+            }
+            out[pos++] = (symbol != previous) ? (byte) '1' : (byte) '0';
+            previous = symbol;
+        }
+        state = previous;
+        position += to - from;
+        return pos - offset;
+    }
+
+    // Manchester: High-Low = 0, Low-High = 1
+    // Diff. Manchester: first half differs from the previous level = 0, same = 1
+    private int biphase(byte[] symbols, int from, int to, byte[] out, int offset) {
+        boolean differential = (scheme == Scheme.DIFF_MANCHESTER);
+        int pos = offset;
+        int i = from;
+        long pairStart = position - (hasHalfSymbol ? 1 : 0);
+
+        while (i < to) {
+            int first;
+            if (hasHalfSymbol) {
+                first = halfSymbol;
+                hasHalfSymbol = false;
+            } else if (i + 1 < to) {
+                first = symbols[i++];
+            } else {
+                // Odd symbol at the end of the chunk: wait for its partner
+                halfSymbol = symbols[i++];
+                hasHalfSymbol = true;
+                break;
+            }
+            int second = symbols[i++];
+
+            if (first == LineEncoder.ZERO || second == LineEncoder.ZERO) {
+                report(pairStart, Violation.INVALID_LEVEL);
+            } else if (first == second) {
+                report(pairStart, Violation.MISSING_TRANSITION);
+            }
+
+            if (differential) {
+                out[pos++] = (first == state) ? (byte) '1' : (byte) '0';
+                state = second;
+            } else {
+                out[pos++] = (first > 0) ? (byte) '0' : (byte) '1';
+            }
+            pairStart += 2;
+        }
+        position += to - from;
+        return pos - offset;
+    }
+
+    // AMI: zero = 0, pulse = 1, pulses must alternate
+    private int ami(byte[] symbols, int from, int to, byte[] out, int offset) {
+        int pos = offset;
+        int lastPulse = state;
+        for (int i = from; i < to; i++) {
+            int symbol = symbols[i];
+            // Both pulses are odd, so the low bit is the data bit; lastPulse is never zero
+            out[pos++] = (byte) ('0' + (symbol & 1));
+            if (symbol == lastPulse) {
+                report(position + i - from, Violation.BIPOLAR_VIOLATION);
+            }
+            lastPulse = (symbol != LineEncoder.ZERO) ? symbol : lastPulse;
+        }
+        state = lastPulse;
+        position += to - from;
+        return pos - offset;
+    }
+}
@@ -1,7 +1,9 @@
 package com.encoder.core;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class LineEncoder {
 
@@ -13,119 +15,279 @@ public class LineEncoder {
         AMI
     }
 
+    // Symbols are written as bytes: +1 = High, 0 = Zero, -1 = Low
+    public static final byte HIGH = 1;
+    public static final byte ZERO = 0;
+    public static final byte LOW = -1;
+
+    // Size of the scratch block used when widening symbols into double[] / direct buffers
+    private static final int BLOCK_BITS = 4096;
+
     /**
      * Main encoding function.
      * Note: For AMI, this expects a pre-scrambled string if applicable.
      * It handles '0', '1', '+', and '-'.
      */
     public static List<Double> encode(String data, Scheme scheme) {
+        byte[] symbols = new byte[encodedLength(data.length(), scheme)];
+        int count = encode(data, scheme, symbols, 0);
+
+        List<Double> levels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            levels.add((double) symbols[i]);
+        }
+        return levels;
+    }
+
+    /**
+     * Number of symbols each input bit turns into (2 for the biphase codes).
+     */
+    public static int symbolsPerBit(Scheme scheme) {
+        return (scheme == Scheme.MANCHESTER || scheme == Scheme.DIFF_MANCHESTER) ? 2 : 1;
+    }
+
+    /**
+     * Size of the output buffer needed to encode bitCount bits with the given scheme.
+     */
+    public static int encodedLength(int bitCount, Scheme scheme) {
+        return bitCount * symbolsPerBit(scheme);
+    }
+
+    /**
+     * Encodes into a caller-supplied symbol buffer (-1/0/+1), starting at offset.
+     * The buffer must have room for encodedLength(data.length(), scheme) symbols.
+     * @return Number of symbols written (fewer for AMI input with unknown characters)
+     */
+    public static int encode(CharSequence data, Scheme scheme, byte[] out, int offset) {
+        int[] state = {initialState(scheme)};
+        return encode(data, 0, data.length(), scheme, out, offset, state) - offset;
+    }
+
+    /**
+     * Encodes into a caller-supplied level buffer, starting at offset.
+     * @return Number of levels written
+     */
+    public static int encode(CharSequence data, Scheme scheme, double[] out, int offset) {
+        byte[] block = new byte[encodedLength(Math.min(data.length(), BLOCK_BITS), scheme)];
+        int[] state = {initialState(scheme)};
+        int pos = offset;
+
+        for (int from = 0; from < data.length(); from += BLOCK_BITS) {
+            int to = Math.min(from + BLOCK_BITS, data.length());
+            int count = encode(data, from, to, scheme, block, 0, state);
+            for (int i = 0; i < count; i++) {
+                out[pos++] = block[i];
+            }
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Encodes into a byte buffer (one symbol per byte), advancing its position.
+     * If the symbols do not fit, the position is left where it was.
+     * @return Number of symbols written
+     */
+    public static int encode(CharSequence data, Scheme scheme, ByteBuffer out) {
+        int start = out.position();
+        if (out.hasArray() && out.remaining() >= encodedLength(data.length(), scheme)) {
+            int total = encode(data, scheme, out.array(), out.arrayOffset() + start);
+            out.position(start + total);
+            return total;
+        }
+
+        // Direct / mapped buffer, or one that only fits if AMI skips characters:
+        // go through a small heap block
+        byte[] block = new byte[encodedLength(Math.min(data.length(), BLOCK_BITS), scheme)];
+        int[] state = {initialState(scheme)};
+        for (int from = 0; from < data.length(); from += BLOCK_BITS) {
+            int to = Math.min(from + BLOCK_BITS, data.length());
+            int count = encode(data, from, to, scheme, block, 0, state);
+            if (out.remaining() < count) {
+                out.position(start);
+                throw new IllegalArgumentException("Buffer too small: " + (out.limit() - start)
+                        + " symbols free for " + data.length() + " bits");
+            }
+            out.put(block, 0, count);
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Encodes packed bits (8 per byte, MSB first) from packed[byteOffset, byteOffset + byteCount)
+     * using the table-driven kernels, or Vector API lanes for NRZ-L, NRZ-I and Manchester when
+     * the JVM runs with --add-modules jdk.incubator.vector.
+     * The buffer must have room for encodedLength(8 * byteCount, scheme) symbols.
+     * @return Number of symbols written
+     */
+    public static int encodePacked(byte[] packed, int byteOffset, int byteCount, Scheme scheme, byte[] out, int offset) {
+        EncodingTables.encode(packed, byteOffset, byteOffset + byteCount, scheme, out, offset, initialState(scheme));
+        return encodedLength(byteCount * 8, scheme);
+    }
+
+    /**
+     * Same as encodePacked, writing float levels (e.g. for a GPU buffer or an FFT).
+     * @return Number of levels written
+     */
+    public static int encodePacked(byte[] packed, int byteOffset, int byteCount, Scheme scheme, float[] out, int offset) {
+        EncodingTables.encode(packed, byteOffset, byteOffset + byteCount, scheme, out, offset, initialState(scheme));
+        return encodedLength(byteCount * 8, scheme);
+    }
+
+    /**
+     * Whether encodePacked is running on Vector API lanes in this JVM.
+     */
+    public static boolean isVectorized() {
+        return VectorSupport.ENABLED;
+    }
+
+    /**
+     * Same as encode(data, scheme, out, offset), split across the common ForkJoinPool.
+     * The output is identical to the sequential version.
+     * @return Number of symbols written
+     */
+    public static int parallelEncode(CharSequence data, Scheme scheme, byte[] out, int offset) {
+        return parallelEncode(data, scheme, out, offset, ForkJoinPool.commonPool());
+    }
+
+    public static int parallelEncode(CharSequence data, Scheme scheme, byte[] out, int offset, ForkJoinPool pool) {
+        return ParallelEncoder.encode(data, scheme, out, offset, pool);
+    }
+
+    /**
+     * Same as encodePacked, split across the common ForkJoinPool.
+     * @return Number of symbols written
+     */
+    public static int parallelEncodePacked(byte[] packed, int byteOffset, int byteCount, Scheme scheme, byte[] out, int offset) {
+        return parallelEncodePacked(packed, byteOffset, byteCount, scheme, out, offset, ForkJoinPool.commonPool());
+    }
+
+    public static int parallelEncodePacked(byte[] packed, int byteOffset, int byteCount, Scheme scheme, byte[] out, int offset, ForkJoinPool pool) {
+        ParallelEncoder.encodePacked(packed, byteOffset, byteCount, scheme, out, offset, pool);
+        return encodedLength(byteCount * 8, scheme);
+    }
+
+    /**
+     * State a scheme starts in: the current level for NRZ-I / Diff. Manchester,
+     * the polarity of the last pulse for AMI. Stateless schemes ignore it.
+     */
+    static int initialState(Scheme scheme) {
+        switch (scheme) {
+            case NRZ_I:
+            case DIFF_MANCHESTER:
+                return HIGH; // Start at High
+            case AMI:
+                return LOW; // Start with negative pulse so the first '1' is positive
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Encodes data[from, to) into out starting at off, continuing from state[0] and
+     * leaving the state after the last bit there.
+     * @return The offset after the last symbol written
+     */
+    static int encode(CharSequence data, int from, int to, Scheme scheme, byte[] out, int off, int[] state) {
         switch (scheme) {
             case NRZ_L:
-                return nrzl(data);
+                nrzl(data, from, to, out, off);
+                return off + (to - from);
             case NRZ_I:
-                return nrzi(data);
+                state[0] = nrzi(data, from, to, out, off, state[0]);
+                return off + (to - from);
             case MANCHESTER:
-                return manchester(data);
+                manchester(data, from, to, out, off);
+                return off + 2 * (to - from);
             case DIFF_MANCHESTER:
-                return diffManchester(data);
+                state[0] = diffManchester(data, from, to, out, off, state[0]);
+                return off + 2 * (to - from);
             case AMI:
-                return ami(data);
+                return ami(data, from, to, out, off, state);
             default:
-                return new ArrayList<>();
+                return off;
         }
     }
 
     // NRZ-L: 0 = High (+1), 1 = Low (-1)
-    private static List<Double> nrzl(String data) {
-        List<Double> levels = new ArrayList<>();
-        for (char bit : data.toCharArray()) {
-            levels.add(bit == '0' ? 1.0 : -1.0);
+    static void nrzl(CharSequence data, int from, int to, byte[] out, int off) {
+        for (int i = from; i < to; i++) {
+            out[off++] = data.charAt(i) == '0' ? HIGH : LOW;
         }
-        return levels;
     }
 
     // NRZ-I: 0 = No change, 1 = Invert
-    private static List<Double> nrzi(String data) {
-        List<Double> levels = new ArrayList<>();
-        double currentLevel = 1.0; // Start at High
-        for (char bit : data.toCharArray()) {
-            if (bit == '1') {
-                currentLevel *= -1.0; // Invert
+    static int nrzi(CharSequence data, int from, int to, byte[] out, int off, int level) {
+        int currentLevel = level;
+        for (int i = from; i < to; i++) {
+            if (data.charAt(i) == '1') {
+                currentLevel = -currentLevel; // Invert
             }
-            levels.add(currentLevel);
+            out[off++] = (byte) currentLevel;
         }
-        return levels;
+        return currentLevel;
     }
 
     // Manchester: 0 = High-to-Low, 1 = Low-to-High
-    private static List<Double> manchester(String data) {
-        List<Double> levels = new ArrayList<>();
-        for (char bit : data.toCharArray()) {
-            if (bit == '0') {
-                levels.add(1.0);
-                levels.add(-1.0);
+    static void manchester(CharSequence data, int from, int to, byte[] out, int off) {
+        for (int i = from; i < to; i++) {
+            if (data.charAt(i) == '0') {
+                out[off++] = HIGH;
+                out[off++] = LOW;
             } else {
-                levels.add(-1.0);
-                levels.add(1.0);
+                out[off++] = LOW;
+                out[off++] = HIGH;
             }
         }
-        return levels;
     }
 
     // Differential Manchester:
     // Always a mid-bit transition. 0 = Transition at start, 1 = No transition at start.
-    private static List<Double> diffManchester(String data) {
-        List<Double> levels = new ArrayList<>();
-        double currentLevel = 1.0; // Start high
-        
-        for (char bit : data.toCharArray()) {
-            if (bit == '0') {
+    static int diffManchester(CharSequence data, int from, int to, byte[] out, int off, int level) {
+        int currentLevel = level;
+        for (int i = from; i < to; i++) {
+            if (data.charAt(i) == '0') {
                 // 0: Transition at start
-                currentLevel *= -1.0; 
+                currentLevel = -currentLevel;
             }
             // else 1: No transition at start, currentLevel remains the same
-            
+
             // Mid-bit transition (for clocking)
-            levels.add(currentLevel);
-            currentLevel *= -1.0;
-            levels.add(currentLevel);
+            out[off++] = (byte) currentLevel;
+            currentLevel = -currentLevel;
+            out[off++] = (byte) currentLevel;
         }
-        return levels;
+        return currentLevel;
     }
 
     // AMI: 0 = Zero (0), 1 = Alternate +1 and -1
-    // This version also handles pre-scrambled '+', '-' from B8ZS/HDB3
-    private static List<Double> ami(String data) {
-        List<Double> levels = new ArrayList<>();
-        boolean isLastPulsePositive = false; // Start with negative pulse for first '1'
-        
-        for (char bit : data.toCharArray()) {
-            switch (bit) {
+    // This version also handles pre-scrambled '+', '-' from B8ZS/HDB3.
+    // Any other character is skipped and writes no symbol, so the end offset is returned
+    // and the polarity of the last pulse is carried in lastPulse[0].
+    static int ami(CharSequence data, int from, int to, byte[] out, int off, int[] lastPulse) {
+        int lastPolarity = lastPulse[0];
+        for (int i = from; i < to; i++) {
+            switch (data.charAt(i)) {
                 case '0':
-                    levels.add(0.0);
+                    out[off++] = ZERO;
                     break;
                 case '1':
                     // Regular AMI '1'
-                    if (isLastPulsePositive) {
-                        levels.add(-1.0);
-                        isLastPulsePositive = false;
-                    } else {
-                        levels.add(1.0);
-                        isLastPulsePositive = true;
-                    }
+                    lastPolarity = -lastPolarity;
+                    out[off++] = (byte) lastPolarity;
                     break;
                 case '+':
                     // Scrambled pulse (Force Positive)
-                    levels.add(1.0);
-                    isLastPulsePositive = true;
+                    lastPolarity = HIGH;
+                    out[off++] = HIGH;
                     break;
                 case '-':
                     // Scrambled pulse (Force Negative)
-                    levels.add(-1.0);
-                    isLastPulsePositive = false;
+                    lastPolarity = LOW;
+                    out[off++] = LOW;
                     break;
             }
         }
-        return levels;
+        lastPulse[0] = lastPolarity;
+        return off;
     }
-}
\ No newline at end of file
+}
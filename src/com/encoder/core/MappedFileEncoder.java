@@ -0,0 +1,215 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * File-to-file encoding for inputs larger than the heap.
+ * The input is mapped with FileChannel.map and read in windows, either as packed
+ * bits (MSB first) or as ASCII '0'/'1' text. Symbols (-1/0/+1, one byte each) are
+ * written to a mapped output file. Only fixed-size blocks live on the heap.
+ * The output is only mapped as far as the symbols of the input windows read so far
+ * (ASCII windows are counted first), so it never has to be truncated under a live
+ * mapping, which fails on Windows.
+ *
+ * Run with: java -cp out/production/JJitter com.encoder.core.MappedFileEncoder
+ *           input packed|ascii scheme none|b8zs|hdb3 output
+ * e.g. "MappedFileEncoder bits.bin packed ami hdb3 symbols.bin".
+ */
+public class MappedFileEncoder {
+
+    public enum InputFormat {
+        PACKED,
+        ASCII
+    }
+
+    // Bytes mapped at a time (FileChannel.map is limited to 2 GB per mapping)
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int BLOCK_BITS = 8192;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("Usage: MappedFileEncoder input packed|ascii scheme none|b8zs|hdb3 output");
+            System.err.println("Schemes: nrz_l, nrz_i, manchester, diff_manchester, ami");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        InputFormat format = InputFormat.valueOf(args[1].toUpperCase(Locale.ROOT));
+        Scheme scheme = Scheme.valueOf(args[2].toUpperCase(Locale.ROOT));
+        StreamingScrambler.Mode scrambling = args[3].equalsIgnoreCase("none")
+                ? null : StreamingScrambler.Mode.valueOf(args[3].toUpperCase(Locale.ROOT));
+        Path output = Paths.get(args[4]);
+
+        long start = System.nanoTime();
+        long symbols = encode(input, format, scheme, scrambling, output);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %,d symbols to %s in %.2f s (%.1f Msymbols/s)%n",
+                symbols, output.toAbsolutePath(), seconds, symbols / seconds / 1e6);
+    }
+
+    /**
+     * Encodes input into output with the given scheme.
+     * @param scrambling B8ZS/HDB3 pass to run before AMI, or null for none
+     * @return Number of symbols written to output
+     */
+    public static long encode(Path input, InputFormat format, Scheme scheme,
+                              StreamingScrambler.Mode scrambling, Path output) throws IOException {
+        if (scrambling != null && scheme != Scheme.AMI) {
+            throw new IllegalArgumentException("Scrambling is only defined for AMI, not " + scheme);
+        }
+
+        StreamingEncoder encoder = new StreamingEncoder(scheme);
+        ScrambledAmiEncoder scrambler = (scrambling != null) ? new ScrambledAmiEncoder(scrambling) : null;
+
+        byte[] bits = new byte[BLOCK_BITS];
+        long[] words = new long[BLOCK_BITS / 64];
+        byte[] symbols = new byte[LineEncoder.encodedLength(BLOCK_BITS, scheme) + (scrambler != null ? scrambler.maxPending() : 0)];
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             MappedSink out = new MappedSink(output)) {
+
+            long size = in.size();
+            int symbolsPerBit = LineEncoder.symbolsPerBit(scheme);
+            for (long position = 0; position < size; position += WINDOW_SIZE) {
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                long windowBits = (format == InputFormat.PACKED) ? 8L * window.remaining() : countAscii(window);
+                out.reserve(windowBits * symbolsPerBit);
+
+                while (window.hasRemaining()) {
+                    if (format == InputFormat.PACKED) {
+                        out.accept(symbols, 0, (scrambler != null)
+                                ? scramblePacked(window, words, scrambler, symbols)
+                                : encodePacked(window, bits, encoder, symbols));
+                        continue;
+                    }
+
+                    int count = readAscii(window, bits);
+                    if (scrambler != null) {
+                        // Scrambling and AMI in one pass
+                        out.accept(symbols, 0, scrambler.encodeAscii(bits, 0, count, symbols, 0));
+                    } else {
+                        out.accept(symbols, 0, encoder.encode(bits, 0, count, symbols, 0));
+                    }
+                }
+            }
+
+            if (scrambler != null) {
+                out.accept(symbols, 0, scrambler.flush(symbols, 0));
+            }
+            return out.written;
+        }
+    }
+
+    // Straight to the table-driven kernels, one input byte at a time
+    private static int encodePacked(MappedByteBuffer window, byte[] block, StreamingEncoder encoder, byte[] symbols) {
+        int count = Math.min(window.remaining(), BLOCK_BITS / 8);
+        window.get(block, 0, count);
+        return encoder.encodePacked(block, 0, count, symbols, 0);
+    }
+
+    // Scrambles 64 bits per word read (big-endian, so MSB first), then any tail bytes one by one
+    private static int scramblePacked(MappedByteBuffer window, long[] words, ScrambledAmiEncoder scrambler, byte[] symbols) {
+        if (window.remaining() < 8) {
+            int count = 0;
+            while (window.hasRemaining()) {
+                count += scrambler.encodeBits((long) (window.get() & 0xFF) << 56, 8, symbols, count);
+            }
+            return count;
+        }
+
+        int count = 0;
+        while (window.remaining() >= 8 && count < words.length) {
+            words[count++] = window.getLong();
+        }
+        return scrambler.encodeWords(words, 0, count, symbols, 0);
+    }
+
+    // Number of '0'/'1' characters in the window, without moving its position
+    private static long countAscii(MappedByteBuffer window) {
+        long count = 0;
+        for (int i = window.position(); i < window.limit(); i++) {
+            byte b = window.get(i);
+            if (b == '0' || b == '1') {
+                count++;
+            } else if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                throw new IllegalArgumentException("Invalid bit character '" + (char) b + "' in input");
+            }
+        }
+        return count;
+    }
+
+    // Copies '0'/'1' characters, skipping line breaks and other whitespace
+    private static int readAscii(MappedByteBuffer window, byte[] bits) {
+        int count = 0;
+        while (window.hasRemaining() && count < bits.length) {
+            byte b = window.get();
+            if (b == '0' || b == '1') {
+                bits[count++] = b;
+            } else if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                throw new IllegalArgumentException("Invalid bit character '" + (char) b + "' in input");
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes symbols through a sliding window mapped over the output file. Windows only
+     * cover symbols announced with reserve(), so once they are all written the file has
+     * exactly that length and nothing is left to trim.
+     */
+    private static class MappedSink implements SymbolSink, AutoCloseable {
+
+        private final FileChannel channel;
+        private MappedByteBuffer window;
+        private long reserved = 0;
+        private long written = 0;
+
+        MappedSink(Path output) throws IOException {
+            channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Announces that count more symbols will be written.
+         */
+        void reserve(long count) {
+            reserved += count;
+        }
+
+        @Override
+        public void accept(byte[] symbols, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (window == null || !window.hasRemaining()) {
+                    if (written == reserved) {
+                        throw new IllegalStateException("More symbols than reserved: " + reserved);
+                    }
+                    if (window != null) {
+                        window.force();
+                    }
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, written, Math.min(WINDOW_SIZE, reserved - written));
+                }
+                int n = Math.min(length, window.remaining());
+                window.put(symbols, offset, n);
+                offset += n;
+                length -= n;
+                written += n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (window != null) {
+                window.force();
+                window = null;
+            }
+            channel.close();
+        }
+    }
+}
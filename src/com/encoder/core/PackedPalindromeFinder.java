@@ -0,0 +1,192 @@
+package com.encoder.core;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Manacher's algorithm over packed bits, for bitstreams far larger than a String.
+ * Same result as PalindromeFinder.findLongestPalindrome (the first longest palindrome),
+ * but the '#'-separated string is never built: separator positions are recognized by
+ * their index, and bits are read straight from a long[] or a mapped file. Expansion is
+ * bounded explicitly instead of by catching ArrayIndexOutOfBoundsException.
+ *
+ * The heap holds the input (one bit per bit, or nothing for a mapped file) and a
+ * constant. Up to MAX_HEAP_CENTERS the palindrome radii live in an int buffer on the
+ * heap; above that they go to a memory-mapped scratch file that is deleted afterwards.
+ */
+public final class PackedPalindromeFinder {
+
+    // 2n+1 radii up to this many are kept on the heap (64 MB)
+    private static final long MAX_HEAP_CENTERS = 1L << 24;
+
+    // Ints per mapped window of the scratch file, and bytes per window of an input file
+    private static final int RADII_WINDOW_BITS = 27;
+    private static final int INPUT_WINDOW_BITS = 30;
+
+    private PackedPalindromeFinder() {
+    }
+
+    /**
+     * Finds the first longest palindrome in the first bitCount bits of words, packed MSB
+     * first like every other long[] in this package: bit i is bit 63 - (i % 64) of
+     * words[i / 64].
+     */
+    public static Palindrome findLongest(long[] words, long bitCount) throws IOException {
+        if (bitCount > (long) words.length * 64) {
+            throw new IllegalArgumentException("bitCount " + bitCount + " exceeds " + words.length + " words");
+        }
+        return findLongest(new WordBits(words), bitCount);
+    }
+
+    /**
+     * Finds the first longest palindrome in bits [0, bitCount) of a BitSet, bit i of the
+     * set being bit i of the stream. BitSet.toLongArray is LSB first, so every word is
+     * reversed on the way in.
+     */
+    public static Palindrome findLongest(BitSet bits, int bitCount) throws IOException {
+        long[] words = bits.toLongArray();
+        long[] padded = new long[(bitCount + 63) / 64];
+        for (int w = 0; w < Math.min(words.length, padded.length); w++) {
+            padded[w] = Long.reverse(words[w]);
+        }
+        return findLongest(padded, bitCount);
+    }
+
+    /**
+     * Finds the first longest palindrome in a file of packed bits (MSB first, as read by
+     * MappedFileEncoder). The file is mapped, not loaded.
+     */
+    public static Palindrome findLongest(Path packedFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(packedFile, StandardOpenOption.READ)) {
+            return findLongest(new MappedBits(channel), channel.size() * 8);
+        }
+    }
+
+    private static Palindrome findLongest(Bits bits, long bitCount) throws IOException {
+        if (bitCount == 0) return Palindrome.EMPTY;
+
+        // Centers of the virtual string "#b#b#...#": even positions are separators,
+        // position 2k+1 is bit k
+        long centers = 2 * bitCount + 1;
+        long best = 0;
+        long bestCenter = 0;
+
+        try (Radii radii = new Radii(centers)) {
+            long c = 0;
+            long r = 0; // Center and right edge of the rightmost palindrome so far
+
+            for (long i = 1; i < centers - 1; i++) {
+                long radius = (r > i) ? Math.min(r - i, radii.get(2 * c - i)) : 0;
+
+                long lo = i - 1 - radius;
+                long hi = i + 1 + radius;
+                while (lo >= 0 && hi < centers) {
+                    // lo and hi have the same parity; separators always match
+                    if ((lo & 1) != 0 && bits.get(lo >>> 1) != bits.get(hi >>> 1)) break;
+                    lo--;
+                    hi++;
+                }
+                radius = hi - i - 1;
+                radii.set(i, (int) radius);
+
+                if (i + radius > r) {
+                    c = i;
+                    r = i + radius;
+                }
+                if (radius > best) {
+                    best = radius;
+                    bestCenter = i;
+                }
+            }
+        }
+        return new Palindrome((bestCenter - best) / 2, best);
+    }
+
+    private abstract static class Bits {
+        abstract int get(long index);
+    }
+
+    private static final class WordBits extends Bits {
+
+        private final long[] words;
+
+        WordBits(long[] words) {
+            this.words = words;
+        }
+
+        @Override
+        int get(long index) {
+            // The shift only uses index % 64
+            return (int) ((words[(int) (index >>> 6)] << index) >>> 63);
+        }
+    }
+
+    private static final class MappedBits extends Bits {
+
+        private final MappedByteBuffer[] windows;
+
+        MappedBits(FileChannel channel) throws IOException {
+            long size = channel.size();
+            long windowSize = 1L << INPUT_WINDOW_BITS;
+            windows = new MappedByteBuffer[(int) ((size + windowSize - 1) >>> INPUT_WINDOW_BITS)];
+            for (int w = 0; w < windows.length; w++) {
+                long position = w * windowSize;
+                windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+            }
+        }
+
+        @Override
+        int get(long index) {
+            long byteIndex = index >>> 3;
+            byte b = windows[(int) (byteIndex >>> INPUT_WINDOW_BITS)].get((int) byteIndex & ((1 << INPUT_WINDOW_BITS) - 1));
+            return (b >>> (7 - (int) (index & 7))) & 1;
+        }
+    }
+
+    /**
+     * One int per center, on the heap or in a mapped scratch file.
+     */
+    private static final class Radii implements AutoCloseable {
+
+        private final IntBuffer[] windows;
+        private final FileChannel scratch;
+
+        Radii(long count) throws IOException {
+            if (count <= MAX_HEAP_CENTERS) {
+                windows = new IntBuffer[] {IntBuffer.allocate((int) count)};
+                scratch = null;
+                return;
+            }
+            Path file = Files.createTempFile("palindrome", ".radii");
+            scratch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            long windowInts = 1L << RADII_WINDOW_BITS;
+            windows = new IntBuffer[(int) ((count + windowInts - 1) >>> RADII_WINDOW_BITS)];
+            for (int w = 0; w < windows.length; w++) {
+                long first = w * windowInts;
+                long ints = Math.min(windowInts, count - first);
+                windows[w] = scratch.map(FileChannel.MapMode.READ_WRITE, first * 4, ints * 4).asIntBuffer();
+            }
+        }
+
+        int get(long index) {
+            return windows[(int) (index >>> RADII_WINDOW_BITS)].get((int) index & ((1 << RADII_WINDOW_BITS) - 1));
+        }
+
+        void set(long index, int value) {
+            windows[(int) (index >>> RADII_WINDOW_BITS)].put((int) index & ((1 << RADII_WINDOW_BITS) - 1), value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (scratch != null) {
+                scratch.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.encoder.core;
+
+/**
+ * Position of a palindrome in a bitstream: bits [start, start + length).
+ */
+public final class Palindrome {
+
+    public static final Palindrome EMPTY = new Palindrome(0, 0);
+
+    private final long start;
+    private final long length;
+
+    public Palindrome(long start, long length) {
+        this.start = start;
+        this.length = length;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getEnd() {
+        return start + length;
+    }
+
+    /**
+     * The palindrome's characters in data, which must be the string it was found in.
+     */
+    public String substring(String data) {
+        return data.substring((int) start, (int) (start + length));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Palindrome)) return false;
+        Palindrome other = (Palindrome) o;
+        return start == other.start && length == other.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(start) * 31 + Long.hashCode(length);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + getEnd() + ")";
+    }
+}
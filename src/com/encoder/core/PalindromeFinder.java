@@ -1,5 +1,7 @@
 package com.encoder.core;
 
+import java.util.concurrent.ForkJoinPool;
+
 public class PalindromeFinder {
 
     /**
@@ -26,13 +28,9 @@ public class PalindromeFinder {
             // If i is within the current palindrome, P[i] is at least min(R-i, P[i_mirror])
             P[i] = (R > i) ? Math.min(R - i, P[i_mirror]) : 0;
 
-            // Attempt to expand palindrome centered at i
-            try {
-                while (t[i + 1 + P[i]] == t[i - 1 - P[i]]) {
-                    P[i]++;
-                }
-            } catch (ArrayIndexOutOfBoundsException e) {
-                // End of string, stop expanding
+            // Attempt to expand palindrome centered at i, stopping at either end of t
+            while (i - 1 - P[i] >= 0 && i + 1 + P[i] < t.length && t[i + 1 + P[i]] == t[i - 1 - P[i]]) {
+                P[i]++;
             }
 
             // If palindrome centered at i expands past R,
@@ -57,4 +55,17 @@ public class PalindromeFinder {
         int start = (centerIndex - maxLen) / 2;
         return s.substring(start, start + maxLen);
     }
-}
\ No newline at end of file
+
+    /**
+     * Same as findLongestPalindrome, split across the common ForkJoinPool.
+     * The result is identical to the sequential version.
+     */
+    public static String parallelFindLongestPalindrome(String s) {
+        return parallelFindLongestPalindrome(s, ForkJoinPool.commonPool());
+    }
+
+    public static String parallelFindLongestPalindrome(String s, ForkJoinPool pool) {
+        if (s == null || s.isEmpty()) return "";
+        return ParallelPalindromeFinder.findLongest(s, pool).substring(s);
+    }
+}
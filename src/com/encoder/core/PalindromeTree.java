@@ -0,0 +1,197 @@
+package com.encoder.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Online palindromic tree (eertree) over a '0'/'1' stream.
+ * Each node is one distinct palindrome; appending a bit adds at most one node, in
+ * amortized O(1). Longest palindrome and distinct count are kept up to date, so the
+ * index can follow data as it arrives instead of rerunning Manacher on every change.
+ *
+ * Positions are first occurrences, so longest() agrees with
+ * PalindromeFinder.findLongestPalindrome on the same data. The few longest palindromes
+ * are kept sorted as nodes are added, so topK does not rescan the tree.
+ */
+public class PalindromeTree {
+
+    private static final int IMAGINARY_ROOT = 0; // Length -1, suffix link of everything at the top
+    private static final int EMPTY_ROOT = 1;     // Length 0
+
+    // Largest k topK accepts when none is given
+    private static final int DEFAULT_TOP = 8;
+
+    // Per node: palindrome length, longest proper palindromic suffix, children by bit,
+    // and the index of the last bit of its first occurrence
+    private int[] length = new int[16];
+    private int[] link = new int[16];
+    private int[] next = new int[32];
+    private long[] firstEnd = new long[16];
+    private int nodeCount;
+
+    private long[] bits = new long[16];
+    private long size;
+
+    private int last;    // Longest palindromic suffix of the data so far
+    private int longest; // Longest palindrome so far
+
+    // The longest nodes, longest first and ties by earlier first occurrence
+    private final int[] top;
+    private int topCount;
+
+    public PalindromeTree() {
+        this(DEFAULT_TOP);
+    }
+
+    /**
+     * @param topCapacity Largest k topK will be asked for
+     */
+    public PalindromeTree(int topCapacity) {
+        if (topCapacity < 0) {
+            throw new IllegalArgumentException("Negative top capacity: " + topCapacity);
+        }
+        this.top = new int[topCapacity];
+        reset();
+    }
+
+    public void reset() {
+        Arrays.fill(next, 0, 2 * Math.max(nodeCount, 2), 0);
+        Arrays.fill(bits, 0L);
+        length[IMAGINARY_ROOT] = -1;
+        link[IMAGINARY_ROOT] = IMAGINARY_ROOT;
+        length[EMPTY_ROOT] = 0;
+        link[EMPTY_ROOT] = IMAGINARY_ROOT;
+        nodeCount = 2;
+        size = 0;
+        last = EMPTY_ROOT;
+        longest = EMPTY_ROOT;
+        topCount = 0;
+    }
+
+    /**
+     * Appends data[from, to), which must be '0'/'1' characters.
+     */
+    public void append(CharSequence data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            append(data.charAt(i));
+        }
+    }
+
+    public void append(char bit) {
+        if (bit != '0' && bit != '1') {
+            throw new IllegalArgumentException("Not a bit: '" + bit + "'");
+        }
+        appendBit(bit - '0');
+    }
+
+    public void appendBit(int bit) {
+        long i = size;
+        if ((i >>> 6) == bits.length) {
+            bits = Arrays.copyOf(bits, bits.length * 2);
+        }
+        bits[(int) (i >>> 6)] |= (long) bit << i;
+        size++;
+
+        int parent = suffixFollowedBy(last, i, bit);
+        int child = next[2 * parent + bit];
+        if (child != 0) {
+            last = child;
+            return;
+        }
+
+        // New distinct palindrome: bit + parent + bit
+        if (nodeCount == length.length) {
+            grow();
+        }
+        int node = nodeCount++;
+        length[node] = length[parent] + 2;
+        link[node] = (length[node] == 1) ? EMPTY_ROOT : next[2 * suffixFollowedBy(link[parent], i, bit) + bit];
+        firstEnd[node] = i;
+        next[2 * parent + bit] = node;
+
+        last = node;
+        if (length[node] > length[longest]) {
+            longest = node;
+        }
+        keepIfTop(node);
+    }
+
+    // A new node occurs last, so it goes after every kept node of the same length
+    private void keepIfTop(int node) {
+        int position = topCount;
+        while (position > 0 && length[top[position - 1]] < length[node]) {
+            position--;
+        }
+        if (position == top.length) return;
+        int end = Math.min(topCount, top.length - 1);
+        System.arraycopy(top, position, top, position + 1, end - position);
+        top[position] = node;
+        topCount = end + 1;
+    }
+
+    // Walks suffix links from node until the palindrome can be extended by bit at position i
+    private int suffixFollowedBy(int node, long i, int bit) {
+        while (true) {
+            long before = i - length[node] - 1;
+            // At the imaginary root before == i, so a single bit always matches
+            if (before >= 0 && bitAt(before) == bit) {
+                return node;
+            }
+            node = link[node];
+        }
+    }
+
+    private int bitAt(long index) {
+        return (int) (bits[(int) (index >>> 6)] >>> index) & 1;
+    }
+
+    private void grow() {
+        int capacity = length.length * 2;
+        length = Arrays.copyOf(length, capacity);
+        link = Arrays.copyOf(link, capacity);
+        next = Arrays.copyOf(next, 2 * capacity);
+        firstEnd = Arrays.copyOf(firstEnd, capacity);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Number of distinct non-empty palindromes in the data so far.
+     */
+    public int distinctCount() {
+        return nodeCount - 2;
+    }
+
+    /**
+     * First occurrence of the longest palindrome, or Palindrome.EMPTY for no data.
+     */
+    public Palindrome longest() {
+        return (longest == EMPTY_ROOT) ? Palindrome.EMPTY : firstOccurrence(longest);
+    }
+
+    /**
+     * Up to k longest distinct palindromes, longest first, ties by earlier first occurrence.
+     * k may be at most the top capacity given to the constructor.
+     */
+    public List<Palindrome> topK(int k) {
+        if (k > top.length) {
+            throw new IllegalArgumentException("k = " + k + " is above the top capacity " + top.length);
+        }
+        if (k <= 0) return Collections.emptyList();
+
+        int count = Math.min(k, topCount);
+        List<Palindrome> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(firstOccurrence(top[i]));
+        }
+        return result;
+    }
+
+    private Palindrome firstOccurrence(int node) {
+        return new Palindrome(firstEnd[node] - length[node] + 1, length[node]);
+    }
+}
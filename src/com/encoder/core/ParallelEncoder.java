@@ -0,0 +1,195 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits large inputs into chunks and encodes them on a ForkJoinPool.
+ * NRZ-L and Manchester have no state, so the chunks are independent. For the stateful
+ * schemes a first parallel pass summarizes what each chunk does to the state, a prefix
+ * scan over those summaries gives every chunk its starting state, and a second parallel
+ * pass encodes the chunks. The output is identical to the sequential encoder.
+ */
+final class ParallelEncoder {
+
+    // Below this many bits per chunk the fork/join overhead is not worth it
+    private static final int MIN_CHUNK_BITS = 1 << 16;
+
+    private ParallelEncoder() {
+    }
+
+    /**
+     * @return Number of symbols written
+     */
+    static int encode(CharSequence data, Scheme scheme, byte[] out, int offset, ForkJoinPool pool) {
+        int length = data.length();
+        int chunkBits = chunkSize(length, pool);
+        int chunks = (length + chunkBits - 1) / chunkBits;
+        int symbolsPerBit = LineEncoder.symbolsPerBit(scheme);
+
+        // Pass 1: what each chunk does to the state, and for AMI (which skips characters
+        // it does not know) how many symbols it writes, counted in the same scan
+        int[] startStates = new int[chunks];
+        int[] counts = new int[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            counts[chunk] = Math.min(chunkBits, length - chunk * chunkBits) * symbolsPerBit;
+        }
+        if (isStateful(scheme)) {
+            int[] transforms = new int[chunks];
+            run(pool, chunks, chunk -> {
+                int from = chunk * chunkBits;
+                int to = Math.min(from + chunkBits, length);
+                transforms[chunk] = transform(data, from, to, scheme, counts, chunk);
+            });
+            prefixScan(transforms, LineEncoder.initialState(scheme), startStates);
+        }
+        int[] starts = new int[chunks + 1];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            starts[chunk + 1] = starts[chunk] + counts[chunk];
+        }
+
+        // Pass 2: encode every chunk from its own starting state
+        run(pool, chunks, chunk -> {
+            int from = chunk * chunkBits;
+            int to = Math.min(from + chunkBits, length);
+            LineEncoder.encode(data, from, to, scheme, out, offset + starts[chunk], new int[] {startStates[chunk]});
+        });
+        return starts[chunks];
+    }
+
+    static void encodePacked(byte[] packed, int byteOffset, int byteCount, Scheme scheme, byte[] out, int offset, ForkJoinPool pool) {
+        int chunkBytes = chunkSize(byteCount * 8, pool) / 8;
+        int chunks = (byteCount + chunkBytes - 1) / chunkBytes;
+        int symbolsPerByte = 8 * LineEncoder.symbolsPerBit(scheme);
+
+        // With only '0'/'1' input every stateful scheme flips once per '1' bit
+        // (Diff. Manchester flips 2n - ones times, which has the same parity)
+        int[] startStates = new int[chunks];
+        if (isStateful(scheme)) {
+            int[] transforms = new int[chunks];
+            run(pool, chunks, chunk -> {
+                int from = byteOffset + chunk * chunkBytes;
+                int to = Math.min(from + chunkBytes, byteOffset + byteCount);
+                int ones = 0;
+                for (int i = from; i < to; i++) {
+                    ones += Integer.bitCount(packed[i] & 0xFF);
+                }
+                transforms[chunk] = ones & 1;
+            });
+            prefixScan(transforms, LineEncoder.initialState(scheme), startStates);
+        }
+
+        run(pool, chunks, chunk -> {
+            int from = byteOffset + chunk * chunkBytes;
+            int to = Math.min(from + chunkBytes, byteOffset + byteCount);
+            EncodingTables.encode(packed, from, to, scheme, out, offset + (chunk * chunkBytes) * symbolsPerByte, startStates[chunk]);
+        });
+    }
+
+    private static boolean isStateful(Scheme scheme) {
+        return scheme == Scheme.NRZ_I || scheme == Scheme.DIFF_MANCHESTER || scheme == Scheme.AMI;
+    }
+
+    private static int chunkSize(int bits, ForkJoinPool pool) {
+        // A few chunks per worker so uneven progress still balances out
+        int target = bits / (pool.getParallelism() * 4);
+        int chunk = Math.max(MIN_CHUNK_BITS, target);
+        return chunk - chunk % 8;
+    }
+
+    /**
+     * Summarizes the effect of data[from, to) on the scheme state.
+     * A transform is encoded as (forced << 1) | flip: the state is first replaced by
+     * forced (when non-zero, from a scrambled '+'/'-' pulse), then negated if flip is set.
+     * For AMI, also stores the number of symbols the chunk writes in counts[chunk].
+     */
+    private static int transform(CharSequence data, int from, int to, Scheme scheme, int[] counts, int chunk) {
+        int forced = 0;
+        int flip = 0;
+        int skipped = 0;
+        for (int i = from; i < to; i++) {
+            char bit = data.charAt(i);
+            switch (scheme) {
+                case NRZ_I:
+                    if (bit == '1') flip ^= 1;
+                    break;
+                case DIFF_MANCHESTER:
+                    // One flip at the mid-bit, one more at the start of a '0'
+                    if (bit == '0') flip ^= 1;
+                    flip ^= 1;
+                    break;
+                case AMI:
+                    if (bit == '1') {
+                        flip ^= 1;
+                    } else if (bit == '+') {
+                        forced = LineEncoder.HIGH;
+                        flip = 0;
+                    } else if (bit == '-') {
+                        forced = LineEncoder.LOW;
+                        flip = 0;
+                    } else if (bit != '0') {
+                        skipped++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (scheme == Scheme.AMI) {
+            counts[chunk] -= skipped;
+        }
+        return (forced << 1) | flip;
+    }
+
+    private static int apply(int transform, int state) {
+        int forced = transform >> 1;
+        int result = (forced != 0) ? forced : state;
+        return ((transform & 1) != 0) ? -result : result;
+    }
+
+    // startStates[i] = state before chunk i
+    private static void prefixScan(int[] transforms, int initialState, int[] startStates) {
+        int state = initialState;
+        for (int i = 0; i < transforms.length; i++) {
+            startStates[i] = state;
+            state = apply(transforms[i], state);
+        }
+    }
+
+    private static void run(ForkJoinPool pool, int chunks, IntConsumer body) {
+        if (chunks <= 1) {
+            if (chunks == 1) body.accept(0);
+        } else {
+            pool.invoke(new ChunkTask(0, chunks, body));
+        }
+    }
+
+    /**
+     * Runs body over chunk indices [from, to), splitting in halves down to single chunks.
+     */
+    private static class ChunkTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        ChunkTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, mid, body), new ChunkTask(mid, to, body));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.encoder.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Longest palindrome on a ForkJoinPool, with the same answer as the sequential
+ * PalindromeFinder (the first of the longest).
+ *
+ * Works on the virtual string "#b#b#...#" without building it. Every chunk of the
+ * input runs Manacher on its own bits only. A center whose palindrome stops inside
+ * its chunk is exact. One that reaches a chunk edge may continue past it, so it is
+ * kept as a candidate. The merge step continues Manacher across the seams: it visits
+ * the candidates in center order, seeds each from its mirror in the rightmost
+ * palindrome found so far (exact by then, whether it was a candidate or not), and only
+ * compares bits beyond that palindrome's edge. It stays linear however long the
+ * palindromes crossing a seam are, e.g. a long zero run across a chunk boundary.
+ */
+final class ParallelPalindromeFinder {
+
+    // Below this many bits per chunk the fork/join overhead is not worth it
+    private static final int MIN_CHUNK_BITS = 1 << 16;
+
+    private ParallelPalindromeFinder() {
+    }
+
+    static Palindrome findLongest(CharSequence s, ForkJoinPool pool) {
+        int n = s.length();
+        if (n == 0) return Palindrome.EMPTY;
+
+        int chunkBits = Math.max(MIN_CHUNK_BITS, n / (pool.getParallelism() * 4));
+        int chunkCount = (n + chunkBits - 1) / chunkBits;
+        Chunk[] chunks = new Chunk[chunkCount];
+        for (int k = 0; k < chunkCount; k++) {
+            chunks[k] = new Chunk(k * chunkBits, Math.min((k + 1) * chunkBits, n));
+        }
+
+        if (chunkCount == 1) {
+            chunks[0].scan(s, n);
+        } else {
+            pool.invoke(new ScanTask(s, chunks, 0, chunkCount));
+        }
+
+        // Best exact palindrome inside a chunk, first chunk first on ties
+        long bestLength = 0;
+        long bestCenter = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.bestLength > bestLength) {
+                bestLength = chunk.bestLength;
+                bestCenter = chunk.bestCenter;
+            }
+        }
+
+        // Merge: Manacher over the candidates only, with the rightmost palindrome (c, r)
+        // among them; each candidate's radius is made exact before any later center mirrors it
+        long centers = 2L * n + 1;
+        long c = 0;
+        long r = 0;
+        for (int j = 0; j < chunkCount; j++) {
+            Chunk chunk = chunks[j];
+            for (int k = 0; k < chunk.candidateCount; k++) {
+                int local = chunk.candidates[k];
+                long center = 2L * chunk.from + local;
+                long radius = chunk.radii[local];
+                if (r > center) {
+                    radius = Math.max(radius, Math.min(r - center, radiusAt(chunks, 2 * c - center)));
+                }
+                radius = expand(s, centers, center, radius);
+                chunk.radii[local] = (int) radius;
+                if (local == chunk.radii.length - 1 && j + 1 < chunkCount) {
+                    chunks[j + 1].radii[0] = (int) radius; // The seam is also the next chunk's first center
+                }
+                if (center + radius > r) {
+                    c = center;
+                    r = center + radius;
+                }
+                // Same length: the smaller center starts first
+                if (radius > bestLength || (radius == bestLength && center < bestCenter)) {
+                    bestLength = radius;
+                    bestCenter = center;
+                }
+            }
+        }
+
+        return new Palindrome((bestCenter - bestLength) / 2, bestLength);
+    }
+
+    // Radius at a global center, exact for every center before the current candidate
+    private static long radiusAt(Chunk[] chunks, long center) {
+        Chunk chunk = chunks[chunkOf(chunks, center)];
+        return chunk.radii[(int) (center - 2L * chunk.from)];
+    }
+
+    // Last chunk starting at or before a global center
+    private static int chunkOf(Chunk[] chunks, long center) {
+        int lo = 0;
+        int hi = chunks.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (2L * chunks[mid].from <= center) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    // Grows a palindrome at center from a known radius, over the whole input
+    private static long expand(CharSequence s, long centers, long center, long radius) {
+        long lo = center - 1 - radius;
+        long hi = center + 1 + radius;
+        while (lo >= 0 && hi < centers) {
+            // lo and hi have the same parity; separators always match
+            if ((lo & 1) != 0 && s.charAt((int) (lo >>> 1)) != s.charAt((int) (hi >>> 1))) break;
+            lo--;
+            hi++;
+        }
+        return hi - center - 1;
+    }
+
+    /**
+     * Bits [from, to): local radii, the best exact palindrome, and the centers that
+     * reached an inner chunk edge (local center indices, ascending).
+     */
+    private static final class Chunk {
+
+        final int from;
+        final int to;
+
+        int[] radii;
+        int[] candidates = new int[16];
+        int candidateCount;
+        long bestLength;
+        long bestCenter; // Global
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        void scan(CharSequence s, int n) {
+            int centers = 2 * (to - from) + 1;
+            radii = new int[centers];
+            int c = 0;
+            int r = 0; // Center and right edge of the rightmost palindrome so far
+
+            for (int i = 0; i < centers; i++) {
+                int radius = (r > i) ? Math.min(r - i, radii[2 * c - i]) : 0;
+                int lo = i - 1 - radius;
+                int hi = i + 1 + radius;
+                while (lo >= 0 && hi < centers) {
+                    if ((lo & 1) != 0 && s.charAt(from + (lo >>> 1)) != s.charAt(from + (hi >>> 1))) break;
+                    lo--;
+                    hi++;
+                }
+                radius = hi - i - 1;
+                radii[i] = radius;
+                if (i + radius > r) {
+                    c = i;
+                    r = i + radius;
+                }
+
+                // Touching the edge of the input is final, touching a chunk edge is not.
+                // The center on the seam itself is the previous chunk's last candidate.
+                boolean open = (i - radius == 0 && i > 0 && from > 0) || (i + radius == centers - 1 && to < n);
+                if (open) {
+                    if (candidateCount == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    }
+                    candidates[candidateCount++] = i;
+                } else if (radius > bestLength) {
+                    bestLength = radius;
+                    bestCenter = 2L * from + i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans chunks [from, to), splitting in halves down to single chunks.
+     */
+    private static class ScanTask extends RecursiveAction {
+
+        private final CharSequence s;
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+
+        ScanTask(CharSequence s, Chunk[] chunks, int from, int to) {
+            this.s = s;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                chunks[from].scan(s, s.length());
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScanTask(s, chunks, from, mid), new ScanTask(s, chunks, mid, to));
+        }
+    }
+}
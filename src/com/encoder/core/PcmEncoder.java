@@ -0,0 +1,111 @@
+package com.encoder.core;
+
+/**
+ * Pulse-code modulation: every sample is quantized to one of 2^bits levels and sent
+ * as that many bits, in offset binary (0 is the most negative level). Samples are
+ * clipped to -1..+1. With mu-law or A-law companding the sample is compressed
+ * logarithmically before the uniform quantizer, so small signals get finer steps;
+ * G.711 uses either at 8 bits.
+ */
+public class PcmEncoder extends AnalogEncoder {
+
+    public enum Companding {
+        UNIFORM,
+        MU_LAW,
+        A_LAW
+    }
+
+    public static final int MAX_BITS = 16;
+
+    private static final double MU = 255;
+    private static final double A = 87.6;
+    private static final double LOG_1_PLUS_MU = Math.log1p(MU);
+    private static final double ONE_PLUS_LOG_A = 1 + Math.log(A);
+
+    private final Companding companding;
+    private final int levelCount;
+
+    // Reconstructed (expanded) level of every code
+    private final double[] levels;
+    private int lastCode;
+
+    public PcmEncoder(int bitsPerSample, Companding companding) {
+        super(bitsPerSample);
+        if (bitsPerSample < 1 || bitsPerSample > MAX_BITS) {
+            throw new IllegalArgumentException("Bits per sample must be 1 to " + MAX_BITS + ": " + bitsPerSample);
+        }
+        this.companding = companding;
+        this.levelCount = 1 << bitsPerSample;
+        this.levels = new double[levelCount];
+        for (int code = 0; code < levelCount; code++) {
+            // Middle of the code's interval (midrise, so there is no level at exactly 0)
+            levels[code] = expand((code + 0.5) * 2 / levelCount - 1);
+        }
+        this.lastCode = levelCount / 2;
+    }
+
+    public Companding getCompanding() {
+        return companding;
+    }
+
+    @Override
+    protected int code(double sample) {
+        double y = compress(Math.max(-1, Math.min(1, sample)));
+        int code = (int) ((y + 1) * 0.5 * levelCount);
+        lastCode = (code < levelCount) ? code : levelCount - 1;
+        return lastCode;
+    }
+
+    @Override
+    public double level() {
+        return levels[lastCode];
+    }
+
+    /**
+     * Level the receiver reconstructs from a code.
+     */
+    public double level(int code) {
+        return levels[code];
+    }
+
+    @Override
+    protected void resetState() {
+        lastCode = levelCount / 2;
+    }
+
+    private double compress(double x) {
+        double magnitude = Math.abs(x);
+        double y;
+        switch (companding) {
+            case MU_LAW:
+                y = Math.log1p(MU * magnitude) / LOG_1_PLUS_MU;
+                break;
+            case A_LAW:
+                y = (magnitude < 1 / A)
+                        ? A * magnitude / ONE_PLUS_LOG_A
+                        : (1 + Math.log(A * magnitude)) / ONE_PLUS_LOG_A;
+                break;
+            default:
+                return x;
+        }
+        return Math.copySign(y, x);
+    }
+
+    private double expand(double y) {
+        double magnitude = Math.abs(y);
+        double x;
+        switch (companding) {
+            case MU_LAW:
+                x = Math.expm1(magnitude * LOG_1_PLUS_MU) / MU;
+                break;
+            case A_LAW:
+                x = (magnitude < 1 / ONE_PLUS_LOG_A)
+                        ? magnitude * ONE_PLUS_LOG_A / A
+                        : Math.exp(magnitude * ONE_PLUS_LOG_A - 1) / A;
+                break;
+            default:
+                return y;
+        }
+        return Math.copySign(x, y);
+    }
+}
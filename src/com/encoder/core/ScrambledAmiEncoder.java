@@ -0,0 +1,430 @@
+package com.encoder.core;
+
+import com.encoder.core.StreamingScrambler.Mode;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * B8ZS/HDB3 scrambling fused with AMI encoding.
+ * Bits go straight to signal levels in one pass, without the intermediate
+ * '0'/'+'/'-' string that Scrambler.b8zs / Scrambler.hdb3 followed by
+ * LineEncoder.ami would build. The scrambled text can still be collected as an
+ * optional side output.
+ *
+ * Like StreamingScrambler, zero runs that may still become a substitution are held
+ * back between calls; call flush() at the end of the stream. The zero count and the
+ * HDB3 parity carry across calls, so char chunks and packed words can be mixed freely.
+ */
+public class ScrambledAmiEncoder {
+
+    // Size of the scratch block used when widening symbols into double[]
+    private static final int BLOCK_BITS = 4096;
+
+    // Words packed at a time by encodeAscii
+    private static final int ASCII_BLOCK_WORDS = 64;
+
+    // Writes 8 symbols with one store, first symbol in the lowest address
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Eight alternating pulses starting with +1 (0x01) or -1 (0xFF)
+    private static final long ALTERNATE_FROM_HIGH = 0xFF01FF01FF01FF01L;
+    private static final long ALTERNATE_FROM_LOW = 0x01FF01FF01FF01FFL;
+
+    // Per byte value: zeros before the first '1', after the last '1', and the longest run in between
+    private static final byte[] LEADING_ZEROS = new byte[256];
+    private static final byte[] TRAILING_ZEROS = new byte[256];
+    private static final byte[] INNER_ZEROS = new byte[256];
+
+    static {
+        for (int value = 1; value < 256; value++) {
+            int leading = Integer.numberOfLeadingZeros(value) - 24;
+            int trailing = Integer.numberOfTrailingZeros(value);
+            int inner = 0;
+            int run = 0;
+            for (int bit = 7 - leading; bit >= trailing; bit--) {
+                run = ((value >>> bit) & 1) == 0 ? run + 1 : 0;
+                inner = Math.max(inner, run);
+            }
+            LEADING_ZEROS[value] = (byte) leading;
+            TRAILING_ZEROS[value] = (byte) trailing;
+            INNER_ZEROS[value] = (byte) inner;
+        }
+        LEADING_ZEROS[0] = 8;
+        TRAILING_ZEROS[0] = 8;
+    }
+
+    // HDB3 a byte at a time. The state before a byte is the pending zeros (0-3) in bits 0-1
+    // and the parity of pulses since the last substitution in bit 2. For every state and
+    // byte value, with the last pulse at +1, HDB3_SYMBOLS holds the symbols from the first
+    // pending zero on (at most 11, in two longs) and HDB3_NEXT the state after the byte,
+    // with bit 3 set when the last pulse changed polarity.
+    private static final long[] HDB3_SYMBOLS = new long[2 * 8 * 256];
+    private static final byte[] HDB3_NEXT = new byte[8 * 256];
+
+    // Lowest bit of every symbol byte, which is set exactly for the pulses
+    private static final long SYMBOL_LOW_BITS = 0x0101010101010101L;
+
+    // Room encodeWords needs after pos to write one word through the HDB3 tables
+    private static final int HDB3_WORD_ROOM = 64 + 16;
+
+    static {
+        ScrambledAmiEncoder reference = new ScrambledAmiEncoder(Mode.HDB3);
+        byte[] symbols = new byte[16];
+        for (int state = 0; state < 8; state++) {
+            for (int value = 0; value < 256; value++) {
+                reference.lastPolarity = LineEncoder.HIGH;
+                reference.zeroCount = state & 3;
+                reference.onesSinceLastSub = state >>> 2;
+                Arrays.fill(symbols, LineEncoder.ZERO);
+                reference.encodeWord((long) value << 56, 8, symbols, 0);
+                int index = (state << 8) | value;
+                HDB3_SYMBOLS[2 * index] = (long) LONG_VIEW.get(symbols, 0);
+                HDB3_SYMBOLS[2 * index + 1] = (long) LONG_VIEW.get(symbols, 8);
+                HDB3_NEXT[index] = (byte) (reference.zeroCount | (reference.onesSinceLastSub & 1) << 2
+                        | ((reference.lastPolarity == LineEncoder.HIGH) ? 0 : 8));
+            }
+        }
+    }
+
+    private final Mode mode;
+    private final int runLength; // 8 for B8ZS, 4 for HDB3
+
+    private int lastPolarity = LineEncoder.LOW; // Assume last pulse was negative
+    private int zeroCount = 0;
+    private int onesSinceLastSub = 0;
+
+    private long[] words; // Scratch for encodeAscii
+
+    public ScrambledAmiEncoder(Mode mode) {
+        this.mode = mode;
+        this.runLength = (mode == Mode.B8ZS) ? 8 : 4;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Largest number of zeros that can be held back between calls.
+     * An output buffer needs room for the input length plus this many symbols.
+     */
+    public int maxPending() {
+        return runLength - 1;
+    }
+
+    public void reset() {
+        lastPolarity = LineEncoder.LOW;
+        zeroCount = 0;
+        onesSinceLastSub = 0;
+    }
+
+    /**
+     * Scrambles and encodes a whole bit string into out.
+     * The buffer must have room for bits.length() symbols.
+     * @param scrambledText Receives the scrambled '0'/'+'/'-' form, or null to skip it
+     * @return Number of symbols written
+     */
+    public static int encode(CharSequence bits, Mode mode, byte[] out, int offset, StringBuilder scrambledText) {
+        ScrambledAmiEncoder encoder = new ScrambledAmiEncoder(mode);
+        int count = encoder.encode(bits, out, offset, scrambledText);
+        return count + encoder.flush(out, offset + count, scrambledText);
+    }
+
+    /**
+     * Scrambles and encodes a whole bit string into a level buffer.
+     * @param scrambledText Receives the scrambled '0'/'+'/'-' form, or null to skip it
+     * @return Number of levels written
+     */
+    public static int encode(CharSequence bits, Mode mode, double[] out, int offset, StringBuilder scrambledText) {
+        ScrambledAmiEncoder encoder = new ScrambledAmiEncoder(mode);
+        byte[] block = new byte[BLOCK_BITS + encoder.maxPending()];
+        int pos = offset;
+
+        for (int from = 0; from < bits.length(); from += BLOCK_BITS) {
+            int to = Math.min(from + BLOCK_BITS, bits.length());
+            pos = widen(block, encoder.encode(bits, from, to, block, 0, scrambledText), out, pos);
+        }
+        pos = widen(block, encoder.flush(block, 0, scrambledText), out, pos);
+        return pos - offset;
+    }
+
+    private static int widen(byte[] symbols, int count, double[] out, int pos) {
+        for (int i = 0; i < count; i++) {
+            out[pos++] = symbols[i];
+        }
+        return pos;
+    }
+
+    /**
+     * Encodes the next chunk of '0'/'1' characters.
+     * @return Number of symbols written to out
+     */
+    public int encode(CharSequence bits, byte[] out, int offset) {
+        return encode(bits, out, offset, null);
+    }
+
+    /**
+     * Encodes the next chunk of '0'/'1' characters, appending the scrambled text to scrambledText if not null.
+     * @return Number of symbols written to out
+     */
+    public int encode(CharSequence bits, byte[] out, int offset, StringBuilder scrambledText) {
+        return encode(bits, 0, bits.length(), out, offset, scrambledText);
+    }
+
+    /**
+     * Encodes bits[from, to), appending the scrambled text to scrambledText if not null.
+     * @return Number of symbols written to out
+     */
+    public int encode(CharSequence bits, int from, int to, byte[] out, int offset, StringBuilder scrambledText) {
+        int pos = offset;
+        for (int i = from; i < to; i++) {
+            if (bits.charAt(i) == '1') {
+                pos = emitPendingZeros(out, pos);
+                onesSinceLastSub++;
+                lastPolarity = -lastPolarity;
+                out[pos++] = (byte) lastPolarity;
+            } else {
+                zeroCount++;
+                if (zeroCount == runLength) {
+                    pos = (mode == Mode.B8ZS) ? substituteB8zs(out, pos) : substituteHdb3(out, pos);
+                    zeroCount = 0;
+                }
+            }
+        }
+        appendText(out, offset, pos, scrambledText);
+        return pos - offset;
+    }
+
+    /**
+     * Encodes packed words words[from, to), 64 bits each, MSB first.
+     * Runs of zeros and ones are found with Long.numberOfLeadingZeros, so whole words of
+     * zeros or ones cost a handful of operations plus the symbol stores. Mixed words go a
+     * byte at a time through the AMI tables whenever the byte cannot complete a zero run.
+     * HDB3 substitutes so often that every byte goes through the HDB3 tables instead.
+     * @return Number of symbols written to out
+     */
+    public int encodeWords(long[] words, int from, int to, byte[] out, int offset) {
+        int pos = offset;
+        for (int i = from; i < to; i++) {
+            long word = words[i];
+            if (mode == Mode.HDB3 && out.length - pos >= HDB3_WORD_ROOM) {
+                pos = encodeHdb3Word(word, out, pos);
+                continue;
+            }
+            if (word == 0L || word == -1L) {
+                pos = encodeWord(word, 64, out, pos);
+                continue;
+            }
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                int value = (int) (word >>> shift) & 0xFF;
+                if (zeroCount + LEADING_ZEROS[value] < runLength
+                        && INNER_ZEROS[value] < runLength && TRAILING_ZEROS[value] < runLength) {
+                    pos = encodeByte(value, out, pos);
+                } else {
+                    pos = encodeWord((long) value << 56, 8, out, pos);
+                }
+            }
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Encodes ASCII bits ascii[from, to), '1' = 1 and anything else 0. The characters are
+     * packed into 64-bit words first (with a vector compare when VectorKernels are
+     * available), so zero runs are then found a word at a time by encodeWords.
+     * @return Number of symbols written to out
+     */
+    public int encodeAscii(byte[] ascii, int from, int to, byte[] out, int offset) {
+        if (words == null) {
+            words = new long[ASCII_BLOCK_WORDS];
+        }
+        int pos = offset;
+        int i = from;
+        while (to - i >= 64) {
+            int count = Math.min((to - i) / 64, ASCII_BLOCK_WORDS);
+            if (VectorSupport.ENABLED) {
+                VectorKernels.packAscii(ascii, i, words, count);
+            } else {
+                packAscii(ascii, i, words, count);
+            }
+            pos += encodeWords(words, 0, count, out, pos);
+            i += count * 64;
+        }
+        if (i < to) {
+            long word = 0;
+            for (int k = i; k < to; k++) {
+                word = (word << 1) | (ascii[k] == '1' ? 1 : 0);
+            }
+            pos = encodeWord(word << (64 - (to - i)), to - i, out, pos);
+        }
+        return pos - offset;
+    }
+
+    private static void packAscii(byte[] ascii, int from, long[] words, int wordCount) {
+        for (int w = 0; w < wordCount; w++) {
+            long word = 0;
+            for (int k = from + 64 * w; k < from + 64 * w + 64; k++) {
+                word = (word << 1) | (ascii[k] == '1' ? 1 : 0);
+            }
+            words[w] = word;
+        }
+    }
+
+    // Writes 16 bytes per input byte, of which the state says how many are symbols
+    private int encodeHdb3Word(long word, byte[] out, int pos) {
+        int state = zeroCount | (onesSinceLastSub & 1) << 2;
+        long flip = (lastPolarity == LineEncoder.HIGH) ? 0L : -1L;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            int index = (state << 8) | ((int) (word >>> shift) & 0xFF);
+            long low = HDB3_SYMBOLS[2 * index];
+            long high = HDB3_SYMBOLS[2 * index + 1];
+            // Negate the pulses (0x01 ^ 0xFE = 0xFF) when the last pulse was -1
+            LONG_VIEW.set(out, pos, low ^ (flip & (low & SYMBOL_LOW_BITS) * 0xFE));
+            LONG_VIEW.set(out, pos + 8, high ^ (flip & (high & SYMBOL_LOW_BITS) * 0xFE));
+            int next = HDB3_NEXT[index];
+            pos += (state & 3) + 8 - (next & 3);
+            flip ^= -(long) (next >>> 3);
+            state = next & 7;
+        }
+        zeroCount = state & 3;
+        onesSinceLastSub = state >>> 2;
+        lastPolarity = (flip == 0L) ? LineEncoder.HIGH : LineEncoder.LOW;
+        return pos;
+    }
+
+    // A byte with at least one '1' and no substitution: plain AMI, trailing zeros stay pending
+    private int encodeByte(int value, byte[] out, int pos) {
+        pos = emitPendingZeros(out, pos);
+        LONG_VIEW.set(out, pos, EncodingTables.amiSymbols(value, lastPolarity));
+        lastPolarity = EncodingTables.amiNext(value, lastPolarity);
+        onesSinceLastSub += Integer.bitCount(value);
+        zeroCount = TRAILING_ZEROS[value];
+        return pos + 8 - zeroCount;
+    }
+
+    /**
+     * Encodes the top bitCount bits of word, MSB first (for a partial last word).
+     * @return Number of symbols written to out
+     */
+    public int encodeBits(long word, int bitCount, byte[] out, int offset) {
+        return encodeWord(word, bitCount, out, offset) - offset;
+    }
+
+    private int encodeWord(long word, int bitCount, byte[] out, int pos) {
+        int remaining = bitCount;
+        while (remaining > 0) {
+            // Run of zeros: only the count matters until it completes a substitution
+            int zeros = Math.min(Long.numberOfLeadingZeros(word), remaining);
+            if (zeros > 0) {
+                zeroCount += zeros;
+                while (zeroCount >= runLength) {
+                    zeroCount -= runLength;
+                    pos = (mode == Mode.B8ZS) ? substituteB8zs(out, pos) : substituteHdb3(out, pos);
+                }
+                word = (zeros < 64) ? word << zeros : 0;
+                remaining -= zeros;
+            }
+
+            // Run of ones: alternating pulses
+            int ones = Math.min(Long.numberOfLeadingZeros(~word), remaining);
+            if (ones > 0) {
+                pos = emitPendingZeros(out, pos);
+                pos = emitPulses(ones, out, pos);
+                onesSinceLastSub += ones;
+                word = (ones < 64) ? word << ones : 0;
+                remaining -= ones;
+            }
+        }
+        return pos;
+    }
+
+    private int emitPulses(int count, byte[] out, int pos) {
+        int first = -lastPolarity;
+        long pattern = (first == LineEncoder.HIGH) ? ALTERNATE_FROM_HIGH : ALTERNATE_FROM_LOW;
+        int n = count;
+        for (; n >= 8; n -= 8, pos += 8) {
+            LONG_VIEW.set(out, pos, pattern);
+        }
+        // Pattern period is even, so the tail still starts with the first polarity
+        for (int pulse = first; n > 0; n--, pulse = -pulse) {
+            out[pos++] = (byte) pulse;
+        }
+        if ((count & 1) != 0) {
+            lastPolarity = first;
+        }
+        return pos;
+    }
+
+    /**
+     * Writes out any zeros still held back at the end of the stream.
+     * @return Number of symbols written to out
+     */
+    public int flush(byte[] out, int offset) {
+        return flush(out, offset, null);
+    }
+
+    public int flush(byte[] out, int offset, StringBuilder scrambledText) {
+        int pos = emitPendingZeros(out, offset);
+        appendText(out, offset, pos, scrambledText);
+        return pos - offset;
+    }
+
+    /**
+     * Character used by Scrambler for a symbol: '+', '0' or '-'.
+     */
+    static char toChar(byte symbol) {
+        return (symbol > 0) ? '+' : (symbol < 0) ? '-' : '0';
+    }
+
+    private static void appendText(byte[] symbols, int from, int to, StringBuilder scrambledText) {
+        if (scrambledText == null) return;
+        for (int i = from; i < to; i++) {
+            scrambledText.append(toChar(symbols[i]));
+        }
+    }
+
+    private int emitPendingZeros(byte[] out, int pos) {
+        for (; zeroCount > 0; zeroCount--) {
+            out[pos++] = LineEncoder.ZERO;
+        }
+        return pos;
+    }
+
+    private int substituteB8zs(byte[] out, int pos) {
+        // B8ZS does not change the polarity state for the next '1'
+        byte v = (byte) -lastPolarity;
+        byte b = (byte) lastPolarity;
+        // Pattern: 000VB0BV, i.e. 000+-0-+ after a '-' pulse, 000-+0+- after a '+' pulse
+        out[pos++] = LineEncoder.ZERO;
+        out[pos++] = LineEncoder.ZERO;
+        out[pos++] = LineEncoder.ZERO;
+        out[pos++] = v;
+        out[pos++] = b;
+        out[pos++] = LineEncoder.ZERO;
+        out[pos++] = b;
+        out[pos++] = v;
+        return pos;
+    }
+
+    private int substituteHdb3(byte[] out, int pos) {
+        if (onesSinceLastSub % 2 == 1) {
+            // Odd '1's: Replace with 000V, V repeats the last polarity
+            out[pos++] = LineEncoder.ZERO;
+            out[pos++] = LineEncoder.ZERO;
+            out[pos++] = LineEncoder.ZERO;
+            out[pos++] = (byte) lastPolarity;
+        } else {
+            // Even '1's: Replace with B00V, B and V both opposite to the last pulse
+            lastPolarity = -lastPolarity;
+            out[pos++] = (byte) lastPolarity;
+            out[pos++] = LineEncoder.ZERO;
+            out[pos++] = LineEncoder.ZERO;
+            out[pos++] = (byte) lastPolarity;
+        }
+        onesSinceLastSub = 0; // Reset parity count
+        return pos;
+    }
+}
@@ -0,0 +1,174 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass statistics over an encoded signal, to compare schemes on a link:
+ * DC balance (mean level and the worst running-sum drift), a histogram of runs of
+ * identical levels (long runs starve clock recovery), transitions per bit, and
+ * AMI bipolar violations.
+ *
+ * Levels can be fed in chunks of any size; everything is kept in primitive
+ * accumulators and nothing is allocated per sample.
+ */
+public class SignalStatistics implements SymbolSink {
+
+    // Runs of this many symbols or more share the last histogram bucket
+    public static final int MAX_RUN_BUCKET = 64;
+
+    private static final int BLOCK_SIZE = 8192;
+    private static final int NO_LEVEL = Integer.MIN_VALUE;
+
+    private final Scheme scheme;
+
+    private long symbolCount;
+    private long runningSum;   // Running digital sum of the levels
+    private long maxRunningSum;
+    private long minRunningSum;
+    private long transitions;
+    private long bipolarViolations;
+
+    private int currentLevel = NO_LEVEL;
+    private long currentRun;
+    private long longestRun;
+    private final long[] runHistogram = new long[MAX_RUN_BUCKET + 1];
+
+    private int lastPulse; // AMI only, 0 before the first pulse
+
+    private byte[] sliced;
+
+    public SignalStatistics(Scheme scheme) {
+        this.scheme = scheme;
+    }
+
+    public void reset() {
+        symbolCount = 0;
+        runningSum = 0;
+        maxRunningSum = 0;
+        minRunningSum = 0;
+        transitions = 0;
+        bipolarViolations = 0;
+        currentLevel = NO_LEVEL;
+        currentRun = 0;
+        longestRun = 0;
+        Arrays.fill(runHistogram, 0);
+        lastPulse = 0;
+    }
+
+    @Override
+    public void accept(byte[] symbols, int offset, int length) {
+        boolean ami = (scheme == Scheme.AMI);
+        for (int i = offset; i < offset + length; i++) {
+            int level = symbols[i];
+
+            runningSum += level;
+            maxRunningSum = Math.max(maxRunningSum, runningSum);
+            minRunningSum = Math.min(minRunningSum, runningSum);
+
+            if (level == currentLevel) {
+                currentRun++;
+            } else {
+                if (currentLevel != NO_LEVEL) {
+                    transitions++;
+                    closeRun();
+                }
+                currentLevel = level;
+                currentRun = 1;
+            }
+
+            if (ami && level != LineEncoder.ZERO) {
+                if (level == lastPulse) {
+                    bipolarViolations++;
+                }
+                lastPulse = level;
+            }
+        }
+        symbolCount += length;
+    }
+
+    /**
+     * Adds raw levels, sliced to -1/0/+1 the same way LineDecoder does.
+     */
+    public void accept(double[] levels, int offset, int length) {
+        if (sliced == null) {
+            sliced = new byte[BLOCK_SIZE];
+        }
+        for (int start = offset; start < offset + length; start += BLOCK_SIZE) {
+            int end = Math.min(start + BLOCK_SIZE, offset + length);
+            accept(sliced, 0, LineDecoder.slice(levels, start, end, sliced));
+        }
+    }
+
+    private void closeRun() {
+        runHistogram[(int) Math.min(currentRun, MAX_RUN_BUCKET)]++;
+        longestRun = Math.max(longestRun, currentRun);
+    }
+
+    public Scheme getScheme() {
+        return scheme;
+    }
+
+    public long getSymbolCount() {
+        return symbolCount;
+    }
+
+    public long getBitCount() {
+        return symbolCount / LineEncoder.symbolsPerBit(scheme);
+    }
+
+    /**
+     * Mean level so far; 0 for a DC-balanced signal.
+     */
+    public double getDcOffset() {
+        return (symbolCount == 0) ? 0 : (double) runningSum / symbolCount;
+    }
+
+    public long getRunningSum() {
+        return runningSum;
+    }
+
+    /**
+     * Largest distance of the running sum from zero, in symbol levels.
+     */
+    public long getMaxDrift() {
+        return Math.max(maxRunningSum, -minRunningSum);
+    }
+
+    public long getTransitions() {
+        return transitions;
+    }
+
+    public double getTransitionsPerBit() {
+        long bits = getBitCount();
+        return (bits == 0) ? 0 : (double) transitions / bits;
+    }
+
+    /**
+     * Longest run of identical levels, including the run still open at the end.
+     */
+    public long getLongestRun() {
+        return Math.max(longestRun, currentRun);
+    }
+
+    /**
+     * Number of runs of each length in symbols; index MAX_RUN_BUCKET counts all longer runs.
+     * Includes the run still open at the end.
+     */
+    public long[] getRunHistogram() {
+        long[] histogram = runHistogram.clone();
+        if (currentRun > 0) {
+            histogram[(int) Math.min(currentRun, MAX_RUN_BUCKET)]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * AMI pulses with the same polarity as the pulse before (B8ZS/HDB3 substitutions
+     * show up here). Always 0 for the other schemes.
+     */
+    public long getBipolarViolations() {
+        return bipolarViolations;
+    }
+}
@@ -0,0 +1,123 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Encodes an unbounded bitstream chunk by chunk.
+ * The scheme state (NRZ-I / Diff. Manchester level, AMI pulse polarity) is kept
+ * between calls, so the output is identical to a one-shot LineEncoder.encode
+ * over the concatenated input wherever the chunk boundaries fall.
+ */
+public class StreamingEncoder {
+
+    private static final int BLOCK_SIZE = 8192;
+
+    private final Scheme scheme;
+    // Held in an array so the CharSequence kernels can carry it while returning the end offset
+    private final int[] state = new int[1];
+
+    // Fixed working buffers for the stream entry points
+    private final byte[] inBlock = new byte[BLOCK_SIZE];
+    private final byte[] outBlock;
+    private final AsciiBits view = new AsciiBits();
+
+    public StreamingEncoder(Scheme scheme) {
+        this.scheme = scheme;
+        this.state[0] = LineEncoder.initialState(scheme);
+        this.outBlock = new byte[LineEncoder.encodedLength(BLOCK_SIZE, scheme)];
+    }
+
+    public Scheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * Forgets the carried state, as if starting a new stream.
+     */
+    public void reset() {
+        state[0] = LineEncoder.initialState(scheme);
+    }
+
+    /**
+     * Encodes the next chunk of bits into out, starting at offset.
+     * @return Number of symbols written
+     */
+    public int encode(CharSequence chunk, byte[] out, int offset) {
+        return LineEncoder.encode(chunk, 0, chunk.length(), scheme, out, offset, state) - offset;
+    }
+
+    /**
+     * Encodes the next chunk given as ASCII bytes ('0', '1', '+', '-') in ascii[from, to).
+     * @return Number of symbols written
+     */
+    public int encode(byte[] ascii, int from, int to, byte[] out, int offset) {
+        return encode(view.wrap(ascii, from, to - from), out, offset);
+    }
+
+    /**
+     * Encodes the next chunk given as packed bits (8 per byte, MSB first) in packed[from, to).
+     * @return Number of symbols written
+     */
+    public int encodePacked(byte[] packed, int from, int to, byte[] out, int offset) {
+        state[0] = EncodingTables.encode(packed, from, to, scheme, out, offset, state[0]);
+        return LineEncoder.encodedLength((to - from) * 8, scheme);
+    }
+
+    /**
+     * Reads ASCII bits from the stream until EOF and passes the symbols to sink.
+     * Whitespace (e.g. line breaks in bit files) is skipped.
+     * @return Number of bits encoded
+     */
+    public long encode(InputStream in, SymbolSink sink) throws IOException {
+        long bits = 0;
+        int read;
+        while ((read = in.read(inBlock)) != -1) {
+            bits += encodeBlock(read, sink);
+        }
+        return bits;
+    }
+
+    /**
+     * Reads ASCII bits from the channel until EOF and passes the symbols to sink.
+     * Whitespace is skipped.
+     * @return Number of bits encoded
+     */
+    public long encode(ReadableByteChannel in, SymbolSink sink) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(inBlock);
+        long bits = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (read > 0) {
+                bits += encodeBlock(buffer.position(), sink);
+            }
+            buffer.clear();
+        }
+        return bits;
+    }
+
+    private int encodeBlock(int length, SymbolSink sink) throws IOException {
+        int bits = stripWhitespace(inBlock, length);
+        if (bits > 0) {
+            int count = encode(inBlock, 0, bits, outBlock, 0);
+            sink.accept(outBlock, 0, count);
+        }
+        return bits;
+    }
+
+    // Compacts buffer[0, length) in place, dropping whitespace. Returns the new length.
+    private static int stripWhitespace(byte[] buffer, int length) {
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                buffer[kept++] = b;
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,71 @@
+package com.encoder.core;
+
+/**
+ * Chunked version of Scrambler.b8zs / Scrambler.hdb3.
+ * Zero runs that may still turn into a substitution are held back until a '1'
+ * arrives or the run completes, so the output of consecutive calls followed by
+ * flush() is identical to scrambling the whole stream at once.
+ * Output uses the same '0', '+', '-' alphabet as Scrambler, as ASCII bytes.
+ * When the result only feeds AMI, use ScrambledAmiEncoder to get levels directly.
+ */
+public class StreamingScrambler {
+
+    public enum Mode {
+        B8ZS,
+        HDB3
+    }
+
+    private final ScrambledAmiEncoder encoder;
+
+    public StreamingScrambler(Mode mode) {
+        this.encoder = new ScrambledAmiEncoder(mode);
+    }
+
+    public Mode getMode() {
+        return encoder.getMode();
+    }
+
+    /**
+     * Largest number of zeros that can be held back between calls.
+     * An output buffer needs room for the input length plus this many symbols.
+     */
+    public int maxPending() {
+        return encoder.maxPending();
+    }
+
+    public void reset() {
+        encoder.reset();
+    }
+
+    /**
+     * Scrambles the next chunk of '0'/'1' characters.
+     * @return Number of characters written to out
+     */
+    public int scramble(CharSequence bits, byte[] out, int offset) {
+        return toChars(out, offset, encoder.encode(bits, out, offset));
+    }
+
+    /**
+     * Scrambles packed words words[from, to), 64 bits each, MSB first.
+     * @return Number of characters written to out
+     */
+    public int scrambleWords(long[] words, int from, int to, byte[] out, int offset) {
+        return toChars(out, offset, encoder.encodeWords(words, from, to, out, offset));
+    }
+
+    /**
+     * Writes out any zeros still held back at the end of the stream.
+     * @return Number of characters written to out
+     */
+    public int flush(byte[] out, int offset) {
+        return toChars(out, offset, encoder.flush(out, offset));
+    }
+
+    // Rewrites symbols in place as '+', '0', '-'
+    private static int toChars(byte[] out, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            out[i] = (byte) ScrambledAmiEncoder.toChar(out[i]);
+        }
+        return count;
+    }
+}
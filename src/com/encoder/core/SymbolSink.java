@@ -0,0 +1,12 @@
+package com.encoder.core;
+
+import java.io.IOException;
+
+/**
+ * Receives blocks of encoded symbols (-1/0/+1) from a streaming encoder.
+ * The array is reused by the caller, so copy anything that must outlive the call.
+ */
+public interface SymbolSink {
+
+    void accept(byte[] symbols, int offset, int length) throws IOException;
+}
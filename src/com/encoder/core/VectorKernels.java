@@ -0,0 +1,243 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Packed-bit kernels on jdk.incubator.vector lanes, for the schemes that are a pure
+ * per-bit mapping (NRZ-L, Manchester) or become one after a prefix XOR (NRZ-I).
+ * Input is read 64 bits at a time. Each vector step broadcasts the word into long
+ * lanes, shifts every lane to its own byte (a nibble with each bit doubled for
+ * Manchester), and multiplies by 0x0101010101010101 so that each byte lane holds
+ * the byte its bit comes from. An AND with a per-lane bit mask then selects between
+ * the two symbol levels. No cross-lane byte shuffles are needed, which matters
+ * because those are slow without AVX-512 VBMI. NRZ-I first turns the word into its
+ * running parity with six shift/XORs, which is NRZ-L of the levels.
+ *
+ * Only loaded when VectorSupport finds the incubator module, so the rest of the
+ * package does not depend on it. Tails shorter than a word go through EncodingTables.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = BYTES.length();
+
+    // Reads a packed word MSB first
+    private static final VarHandle WORD_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final long SPREAD = 0x0101010101010101L;
+
+    // Vector steps per 64-bit word: one symbol per lane for NRZ, two per bit for Manchester
+    private static final int NRZ_STEPS = 64 / LANES;
+    private static final int MANCHESTER_STEPS = 128 / LANES;
+
+    // How far each long lane shifts the word to reach its byte (nibble). Later steps
+    // shift the word itself first, so each kernel uses a single constant vector
+    private static final LongVector NRZ_SHIFT = shifts(56, 8);
+    private static final LongVector MANCHESTER_SHIFT = shifts(60, 4);
+
+    // Lane i tests bit 7 - i % 8 of its byte
+    private static final ByteVector BIT_SELECT = lanes(i -> 0x80 >>> (i % 8));
+
+    private static final ByteVector HIGHS = ByteVector.broadcast(BYTES, LineEncoder.HIGH);
+    private static final ByteVector LOWS = ByteVector.broadcast(BYTES, LineEncoder.LOW);
+
+    // Manchester halves: High-Low for a '0', Low-High for a '1'
+    private static final ByteVector MANCHESTER_ZERO = lanes(i -> (i % 2 == 0) ? LineEncoder.HIGH : LineEncoder.LOW);
+    private static final ByteVector MANCHESTER_ONE = MANCHESTER_ZERO.neg();
+
+    private static final byte ASCII_ONE = '1';
+
+    private VectorKernels() {
+    }
+
+    private static LongVector shifts(int first, int width) {
+        long[] shifts = new long[LONGS.length()];
+        for (int j = 0; j < shifts.length; j++) {
+            shifts[j] = first - width * j;
+        }
+        return LongVector.fromArray(LONGS, shifts, 0);
+    }
+
+    private interface LaneValue {
+        int of(int lane);
+    }
+
+    private static ByteVector lanes(LaneValue value) {
+        byte[] values = new byte[LANES];
+        for (int i = 0; i < LANES; i++) {
+            values[i] = (byte) value.of(i);
+        }
+        return ByteVector.fromArray(BYTES, values, 0);
+    }
+
+    /**
+     * Whether the preferred shape has 16 to 64 byte lanes, i.e. real SIMD registers.
+     */
+    static boolean usable() {
+        return LANES >= 16 && LANES <= 64 && LONGS.vectorBitSize() == BYTES.vectorBitSize();
+    }
+
+    static boolean supports(Scheme scheme) {
+        return scheme == Scheme.NRZ_L || scheme == Scheme.MANCHESTER || scheme == Scheme.NRZ_I;
+    }
+
+    /**
+     * Same contract as EncodingTables.encode, for the schemes in supports().
+     */
+    static int encode(byte[] packed, int from, int to, Scheme scheme, byte[] out, int off, int state) {
+        // One loop per method, so each one is compiled on its own profile
+        int words = (to - from) / 8;
+        switch (scheme) {
+            case NRZ_L:
+                nrzl(packed, from, words, out, off);
+                break;
+            case NRZ_I:
+                state = nrzi(packed, from, words, out, off, state);
+                break;
+            case MANCHESTER:
+                manchester(packed, from, words, out, off);
+                break;
+            default:
+                return EncodingTables.encodeScalar(packed, from, to, scheme, out, off, state);
+        }
+        int done = words * 8;
+        return EncodingTables.encodeScalar(packed, from + done, to, scheme, out, off + done * 8 * LineEncoder.symbolsPerBit(scheme), state);
+    }
+
+    private static void nrzl(byte[] packed, int from, int words, byte[] out, int off) {
+        for (int w = 0; w < words; w++) {
+            long word = (long) WORD_VIEW.get(packed, from + 8 * w);
+            for (int step = 0; step < NRZ_STEPS; step++, off += LANES) {
+                nrz(word, step).intoArray(out, off);
+            }
+        }
+    }
+
+    private static int nrzi(byte[] packed, int from, int words, byte[] out, int off, int state) {
+        for (int w = 0; w < words; w++) {
+            long word = levels((long) WORD_VIEW.get(packed, from + 8 * w), state);
+            state = lastLevel(word);
+            for (int step = 0; step < NRZ_STEPS; step++, off += LANES) {
+                nrz(word, step).intoArray(out, off);
+            }
+        }
+        return state;
+    }
+
+    private static void manchester(byte[] packed, int from, int words, byte[] out, int off) {
+        for (int w = 0; w < words; w++) {
+            long word = (long) WORD_VIEW.get(packed, from + 8 * w);
+            for (int step = 0; step < MANCHESTER_STEPS; step++, off += LANES) {
+                manchester(word, step).intoArray(out, off);
+            }
+        }
+    }
+
+    /**
+     * Same as encode, widening the symbols to float levels.
+     */
+    static int encode(byte[] packed, int from, int to, Scheme scheme, float[] out, int off, int state) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long word = (long) WORD_VIEW.get(packed, i);
+            if (scheme == Scheme.MANCHESTER) {
+                for (int step = 0; step < MANCHESTER_STEPS; step++, off += LANES) {
+                    widen(manchester(word, step), out, off);
+                }
+                continue;
+            }
+            if (scheme == Scheme.NRZ_I) {
+                word = levels(word, state);
+                state = lastLevel(word);
+            }
+            for (int step = 0; step < NRZ_STEPS; step++, off += LANES) {
+                widen(nrz(word, step), out, off);
+            }
+        }
+
+        // Tail of up to 7 bytes through the tables
+        return EncodingTables.encodeScalar(packed, i, to, scheme, out, off, state);
+    }
+
+    // NRZ-L symbols of bits [step * LANES, (step + 1) * LANES) of word
+    private static ByteVector nrz(long word, int step) {
+        ByteVector bytes = LongVector.broadcast(LONGS, word << (step * LANES))
+                .lanewise(VectorOperators.LSHR, NRZ_SHIFT)
+                .and(0xFFL)
+                .mul(SPREAD)
+                .reinterpretAsBytes();
+        VectorMask<Byte> zeros = bytes.and(BIT_SELECT).compare(VectorOperators.EQ, 0);
+        return LOWS.blend(HIGHS, zeros);
+    }
+
+    // Manchester symbols of bits [step * LANES / 2, (step + 1) * LANES / 2) of word
+    private static ByteVector manchester(long word, int step) {
+        LongVector nibbles = LongVector.broadcast(LONGS, word << (step * LANES / 2))
+                .lanewise(VectorOperators.LSHR, MANCHESTER_SHIFT)
+                .and(0xFL);
+        // Double every bit: b3 b2 b1 b0 -> b3 b3 b2 b2 b1 b1 b0 b0
+        nibbles = nibbles.or(nibbles.lanewise(VectorOperators.LSHL, 2)).and(0x33L);
+        nibbles = nibbles.or(nibbles.lanewise(VectorOperators.LSHL, 1)).and(0x55L);
+        nibbles = nibbles.or(nibbles.lanewise(VectorOperators.LSHL, 1));
+        ByteVector bytes = nibbles.mul(SPREAD).reinterpretAsBytes();
+        VectorMask<Byte> zeros = bytes.and(BIT_SELECT).compare(VectorOperators.EQ, 0);
+        return MANCHESTER_ONE.blend(MANCHESTER_ZERO, zeros);
+    }
+
+    private static void widen(ByteVector symbols, float[] out, int off) {
+        int parts = LANES / FLOATS.length();
+        for (int part = 0; part < parts; part++) {
+            ((FloatVector) symbols.convertShape(VectorOperators.B2F, FLOATS, part)).intoArray(out, off + part * FLOATS.length());
+        }
+    }
+
+    /**
+     * NRZ-I levels of a packed word as NRZ-L bits (1 = Low), continuing from state.
+     */
+    private static long levels(long word, int state) {
+        // Running XOR from the MSB down: bit k is the parity of bits 0..k
+        word ^= word >>> 1;
+        word ^= word >>> 2;
+        word ^= word >>> 4;
+        word ^= word >>> 8;
+        word ^= word >>> 16;
+        word ^= word >>> 32;
+        return (state == LineEncoder.HIGH) ? word : ~word;
+    }
+
+    private static int lastLevel(long levels) {
+        return ((levels & 1) == 0) ? LineEncoder.HIGH : LineEncoder.LOW;
+    }
+
+    /**
+     * Packs ASCII bits[from, from + 64 * words) into MSB-first words, '1' = 1 and
+     * anything else 0.
+     */
+    static void packAscii(byte[] ascii, int from, long[] words, int wordCount) {
+        for (int w = 0; w < wordCount; w++) {
+            long word = 0;
+            for (int lane = 0; lane < 64; lane += LANES) {
+                long ones = ByteVector.fromArray(BYTES, ascii, from + 64 * w + lane).compare(VectorOperators.EQ, ASCII_ONE).toLong();
+                word |= ones << lane;
+            }
+            words[w] = Long.reverse(word);
+        }
+    }
+
+    static int lanes() {
+        return LANES;
+    }
+}
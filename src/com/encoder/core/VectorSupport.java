@@ -0,0 +1,27 @@
+package com.encoder.core;
+
+/**
+ * Decides once, at class load, whether the jdk.incubator.vector kernels can be used.
+ * They need the JVM to be started with --add-modules jdk.incubator.vector; without it
+ * VectorKernels fails to link and every caller stays on the scalar tables.
+ * Run with -Dcom.encoder.vector=false to force the scalar path (e.g. to compare them).
+ */
+final class VectorSupport {
+
+    static final boolean ENABLED = detect();
+
+    private VectorSupport() {
+    }
+
+    private static boolean detect() {
+        if ("false".equals(System.getProperty("com.encoder.vector"))) {
+            return false;
+        }
+        try {
+            return VectorKernels.usable();
+        } catch (LinkageError e) {
+            // Module not resolved: the incubator classes are missing or not readable
+            return false;
+        }
+    }
+}
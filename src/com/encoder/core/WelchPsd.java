@@ -0,0 +1,236 @@
+package com.encoder.core;
+
+import com.encoder.core.LineEncoder.Scheme;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Streaming Welch estimate of the power spectral density of an encoded signal.
+ * Every symbol is held for samplesPerSymbol samples (a rectangular pulse), the sample
+ * stream is cut into Hann-windowed segments with 50% overlap, and the squared FFT
+ * magnitudes are averaged.
+ *
+ * Memory is constant: samples are collected for a batch of segments, the batch is
+ * transformed on a ForkJoinPool (two real segments per complex FFT, each pair with
+ * its own scratch and accumulator), and only the half segment shared with the next
+ * batch is kept. Frequencies are in multiples of the bit rate.
+ */
+public class WelchPsd implements SymbolSink {
+
+    private final Fft fft;
+    private final int segmentLength;
+    private final int hop;
+    private final int samplesPerSymbol;
+    private final double samplesPerBit;
+    private final ForkJoinPool pool;
+
+    private final double[] window;
+    private final double windowPower; // Sum of squared window values
+
+    // Samples for batchSegments overlapping segments, plus scratch and sums per pair of segments
+    private final int batchSegments;
+    private final double[] samples;
+    private int sampleCount;
+    private final double[][] re;
+    private final double[][] im;
+    private final double[][] power;
+    private long segmentCount;
+
+    public WelchPsd(Scheme scheme, int segmentLength, int samplesPerSymbol) {
+        this(scheme, segmentLength, samplesPerSymbol, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param segmentLength FFT size in samples, a power of two
+     * @param samplesPerSymbol Oversampling of each symbol
+     */
+    public WelchPsd(Scheme scheme, int segmentLength, int samplesPerSymbol, ForkJoinPool pool) {
+        this.fft = new Fft(segmentLength);
+        this.segmentLength = segmentLength;
+        this.hop = segmentLength / 2;
+        this.samplesPerSymbol = samplesPerSymbol;
+        this.samplesPerBit = (double) samplesPerSymbol * LineEncoder.symbolsPerBit(scheme);
+        this.pool = pool;
+
+        window = new double[segmentLength];
+        double sum = 0;
+        for (int i = 0; i < segmentLength; i++) {
+            window[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / segmentLength);
+            sum += window[i] * window[i];
+        }
+        windowPower = sum;
+
+        batchSegments = 2 * Math.max(1, pool.getParallelism() * 4);
+        samples = new double[hop * (batchSegments + 1)];
+        re = new double[batchSegments / 2][segmentLength];
+        im = new double[batchSegments / 2][segmentLength];
+        power = new double[batchSegments / 2][segmentLength / 2 + 1];
+    }
+
+    @Override
+    public void accept(byte[] symbols, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            hold(symbols[i]);
+        }
+    }
+
+    public void accept(double[] levels, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            hold(levels[i]);
+        }
+    }
+
+    /**
+     * Adds samples that are already at samplesPerSymbol per symbol, e.g. the output of
+     * a ChannelFilter or JitterChannel.
+     */
+    public void acceptSamples(double[] samples, int offset, int length) {
+        int done = 0;
+        while (done < length) {
+            int n = Math.min(length - done, this.samples.length - sampleCount);
+            System.arraycopy(samples, offset + done, this.samples, sampleCount, n);
+            sampleCount += n;
+            done += n;
+            if (sampleCount == this.samples.length) {
+                runBatch(batchSegments);
+            }
+        }
+    }
+
+    // Appends one symbol as samplesPerSymbol equal samples
+    private void hold(double level) {
+        int remaining = samplesPerSymbol;
+        while (remaining > 0) {
+            int n = Math.min(remaining, samples.length - sampleCount);
+            for (int k = 0; k < n; k++) {
+                samples[sampleCount + k] = level;
+            }
+            sampleCount += n;
+            remaining -= n;
+            if (sampleCount == samples.length) {
+                runBatch(batchSegments);
+            }
+        }
+    }
+
+    // Transforms the first count segments of the buffer and keeps the overlap
+    private void runBatch(int count) {
+        int pairs = (count + 1) / 2;
+        if (pairs == 1) {
+            transformPair(0, count);
+        } else {
+            pool.invoke(new SegmentTask(0, pairs, count));
+        }
+        segmentCount += count;
+
+        // Next segment starts at count * hop; its first half is already here
+        int keep = sampleCount - count * hop;
+        System.arraycopy(samples, count * hop, samples, 0, keep);
+        sampleCount = keep;
+    }
+
+    /**
+     * Segments 2 * slot and 2 * slot + 1 (if below count) as the real and imaginary part
+     * of one complex FFT. Both inputs are real, so their spectra separate again as
+     * A[k] = (X[k] + conj X[N - k]) / 2 and B[k] = (X[k] - conj X[N - k]) / 2i.
+     */
+    private void transformPair(int slot, int count) {
+        double[] x = re[slot];
+        double[] y = im[slot];
+        int first = 2 * slot * hop;
+        boolean second = 2 * slot + 1 < count;
+        for (int i = 0; i < segmentLength; i++) {
+            x[i] = samples[first + i] * window[i];
+            y[i] = second ? samples[first + hop + i] * window[i] : 0;
+        }
+        fft.transform(x, y);
+
+        double[] sum = power[slot];
+        sum[0] += x[0] * x[0] + y[0] * y[0];
+        for (int k = 1; k <= segmentLength / 2; k++) {
+            int j = segmentLength - k;
+            double ar = x[k] + x[j];
+            double ai = y[k] - y[j];
+            double br = y[k] + y[j];
+            double bi = x[j] - x[k];
+            sum[k] += 0.25 * (ar * ar + ai * ai + br * br + bi * bi);
+        }
+    }
+
+    /**
+     * Transforms whatever full segments are still buffered. Call before reading the
+     * result; more samples can be added afterwards.
+     */
+    public void flush() {
+        int complete = (sampleCount >= segmentLength) ? (sampleCount - segmentLength) / hop + 1 : 0;
+        if (complete > 0) {
+            runBatch(complete);
+        }
+    }
+
+    public long getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Number of frequency bins, from 0 to half the sample rate.
+     */
+    public int binCount() {
+        return segmentLength / 2 + 1;
+    }
+
+    /**
+     * Width of one bin in multiples of the bit rate.
+     */
+    public double binWidth() {
+        return samplesPerBit / segmentLength;
+    }
+
+    /**
+     * One-sided PSD per bin, in power per unit of bit rate (a rectangular NRZ signal of
+     * +-1 integrates to 1). Zero until the first segment is complete.
+     */
+    public double[] density() {
+        double[] density = new double[binCount()];
+        if (segmentCount == 0) return density;
+
+        for (double[] slot : power) {
+            for (int k = 0; k < density.length; k++) {
+                density[k] += slot[k];
+            }
+        }
+        double scale = 1.0 / (segmentCount * windowPower * samplesPerBit);
+        for (int k = 0; k < density.length; k++) {
+            boolean edge = (k == 0 || k == density.length - 1);
+            density[k] *= edge ? scale : 2 * scale;
+        }
+        return density;
+    }
+
+    /**
+     * Transforms segment pairs [from, to) of the current batch, splitting in halves.
+     */
+    private class SegmentTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int count;
+
+        SegmentTask(int from, int to, int count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                transformPair(from, count);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SegmentTask(from, mid, count), new SegmentTask(mid, to, count));
+        }
+    }
+}
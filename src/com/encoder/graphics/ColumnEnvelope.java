@@ -0,0 +1,90 @@
+package com.encoder.graphics;
+
+import java.awt.geom.Path2D;
+
+/**
+ * Level-of-detail reduction for plotting: a run of samples is cut into one slice per
+ * pixel column (or per sample, when there are fewer), and each slice is kept as its first, last, minimum and maximum value.
+ * Drawn as a band over those extremes it shows every level and every transition the
+ * full signal would (a column with min != max has one), at a cost that depends only
+ * on the width. The arrays grow to the widest plot seen and are reused after that.
+ * The extremes are looked up in a SummaryPyramid, so the slices may be any length.
+ */
+final class ColumnEnvelope {
+
+    private double[] first = new double[0];
+    private double[] last = new double[0];
+    private double[] min = new double[0];
+    private double[] max = new double[0];
+    private int columns;
+
+    /**
+     * Reduces levels[from, to) of the pyramid's buffer to columns slices; needs at least
+     * one sample per column. The extremes of each slice come from the pyramid, so this
+     * costs O(columns log n) however many samples the slices hold.
+     */
+    void compute(SummaryPyramid pyramid, int from, int to, int columns) {
+        float[] levels = pyramid.getLevels();
+        if (first.length < columns) {
+            first = new double[columns];
+            last = new double[columns];
+            min = new double[columns];
+            max = new double[columns];
+        }
+        this.columns = columns;
+        long count = to - from;
+        int start = from;
+        for (int c = 0; c < columns; c++) {
+            int end = from + (int) ((c + 1) * count / columns);
+            pyramid.query(start, end);
+            first[c] = levels[start];
+            last[c] = levels[end - 1];
+            min[c] = pyramid.getLow();
+            max[c] = pyramid.getHigh();
+            start = end;
+        }
+    }
+
+    int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Appends the envelope to path as one closed band, column c from x0 + c * columnWidth
+     * to the next column. Each column covers its minimum to maximum, widened by
+     * halfWidth above and below; the step from the level held in from the previous
+     * column is a strip of twice halfWidth at its start. Corners are snapped to whole
+     * pixels so the band can be filled without antialiasing. A dense signal then fills
+     * with a handful of edges per scanline, where stroking the same outline would not.
+     */
+    void appendBand(Path2D.Float path, double x0, double columnWidth, double yMid, double yScale, double halfWidth) {
+        double stepWidth = Math.min(columnWidth, 2 * halfWidth);
+        for (int c = 0; c < columns; c++) {
+            double held = (c > 0) ? last[c - 1] : first[c];
+            float x = (float) Math.rint(x0 + c * columnWidth);
+            float xStep = (float) Math.rint(x0 + c * columnWidth + stepWidth);
+            float yStep = (float) Math.floor(yMid - Math.max(max[c], held) * yScale - halfWidth);
+            float y = (float) Math.floor(yMid - max[c] * yScale - halfWidth);
+            if (c == 0) {
+                path.moveTo(x, yStep);
+            } else {
+                path.lineTo(x, yStep);
+            }
+            path.lineTo(xStep, yStep);
+            path.lineTo(xStep, y);
+            path.lineTo((float) Math.rint(x0 + (c + 1) * columnWidth), y);
+        }
+        for (int c = columns - 1; c >= 0; c--) {
+            double held = (c > 0) ? last[c - 1] : first[c];
+            float x = (float) Math.rint(x0 + c * columnWidth);
+            float xStep = (float) Math.rint(x0 + c * columnWidth + stepWidth);
+            float yStep = (float) Math.ceil(yMid - Math.min(min[c], held) * yScale + halfWidth);
+            float y = (float) Math.ceil(yMid - min[c] * yScale + halfWidth);
+            path.lineTo((float) Math.rint(x0 + (c + 1) * columnWidth), y);
+            path.lineTo(xStep, y);
+            path.lineTo(xStep, yStep);
+            path.lineTo(x, yStep);
+        }
+        path.closePath();
+    }
+}
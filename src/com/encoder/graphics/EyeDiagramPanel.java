@@ -0,0 +1,134 @@
+package com.encoder.graphics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A Swing JPanel that draws an eye-diagram density histogram as a heatmap.
+ * Counts are mapped on a log scale from black (empty) through blue, green and yellow
+ * to red (densest). The image is built once per setEye and only scaled when painting.
+ */
+public class EyeDiagramPanel extends JPanel {
+
+    private BufferedImage heatmap;
+    private double minLevel;
+    private double maxLevel;
+    private String plotTitle = "";
+
+    // Colors
+    private static final Color COLOR_BACKGROUND = Color.BLACK;
+    private static final Color COLOR_AXES = new Color(100, 100, 100);
+    private static final Color COLOR_TEXT = Color.WHITE;
+    private static final Font FONT_TITLE = new Font("SansSerif", Font.BOLD, 16);
+    private static final Font FONT_AXES = new Font("SansSerif", Font.PLAIN, 11);
+
+    // Heatmap colors from empty to densest
+    private static final Color[] PALETTE = {
+            new Color(0, 0, 60), Color.BLUE, Color.GREEN, Color.YELLOW, Color.RED
+    };
+
+    // Padding
+    private static final int PADDING_TOP = 40;
+    private static final int PADDING_BOTTOM = 40;
+    private static final int PADDING_LEFT = 40;
+    private static final int PADDING_RIGHT = 40;
+
+    public EyeDiagramPanel() {
+        setBackground(COLOR_BACKGROUND);
+    }
+
+    /**
+     * Sets the histogram to draw, counts[column][row] with row 0 at minLevel, as kept by
+     * EyeDiagram. The counts are read once here and not kept.
+     */
+    public void setEye(int[][] counts, double minLevel, double maxLevel, String title) {
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+        this.plotTitle = title;
+        this.heatmap = render(counts);
+        repaint();
+    }
+
+    private static BufferedImage render(int[][] counts) {
+        int columns = counts.length;
+        int rows = (columns == 0) ? 0 : counts[0].length;
+        if (columns == 0 || rows == 0) return null;
+
+        int max = 0;
+        for (int[] column : counts) {
+            for (int count : column) {
+                max = Math.max(max, count);
+            }
+        }
+        double logMax = Math.log1p(max);
+
+        BufferedImage image = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+        for (int c = 0; c < columns; c++) {
+            for (int r = 0; r < rows; r++) {
+                int count = counts[c][r];
+                int rgb = (count == 0) ? 0 : color(Math.log1p(count) / logMax);
+                image.setRGB(c, rows - 1 - r, rgb); // Row 0 is the lowest level
+            }
+        }
+        return image;
+    }
+
+    // Interpolates the palette at t in (0, 1]
+    private static int color(double t) {
+        double position = t * (PALETTE.length - 1);
+        int index = Math.min(PALETTE.length - 2, (int) position);
+        double f = position - index;
+        Color a = PALETTE[index];
+        Color b = PALETTE[index + 1];
+        int red = (int) (a.getRed() + f * (b.getRed() - a.getRed()));
+        int green = (int) (a.getGreen() + f * (b.getGreen() - a.getGreen()));
+        int blue = (int) (a.getBlue() + f * (b.getBlue() - a.getBlue()));
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g;
+
+        int chartWidth = getWidth() - PADDING_LEFT - PADDING_RIGHT;
+        int chartHeight = getHeight() - PADDING_TOP - PADDING_BOTTOM;
+        if (heatmap != null && chartWidth > 0 && chartHeight > 0) {
+            // Smooth scaling between histogram cells
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.drawImage(heatmap, PADDING_LEFT, PADDING_TOP, chartWidth, chartHeight, null);
+            drawAxes(g2d, chartWidth, chartHeight);
+        }
+
+        drawTitle(g2d);
+    }
+
+    private void drawAxes(Graphics2D g2d, int chartWidth, int chartHeight) {
+        g2d.setColor(COLOR_AXES);
+        g2d.setFont(FONT_AXES);
+        g2d.drawRect(PADDING_LEFT, PADDING_TOP, chartWidth, chartHeight);
+
+        // Level labels at whole levels within the range
+        double yScale = chartHeight / (maxLevel - minLevel);
+        for (int level = (int) Math.ceil(minLevel); level <= maxLevel; level++) {
+            int y = PADDING_TOP + (int) ((maxLevel - level) * yScale);
+            g2d.drawString(String.format("%+d", level), PADDING_LEFT - 25, y + 4);
+        }
+
+        int yBottom = PADDING_TOP + chartHeight;
+        g2d.drawString("0", PADDING_LEFT - 3, yBottom + 15);
+        g2d.drawString("0.5", PADDING_LEFT + chartWidth / 2 - 8, yBottom + 15);
+        g2d.drawString("1 UI", PADDING_LEFT + chartWidth - 10, yBottom + 15);
+    }
+
+    private void drawTitle(Graphics2D g2d) {
+        if (plotTitle == null || plotTitle.isEmpty()) return;
+
+        g2d.setColor(COLOR_TEXT);
+        g2d.setFont(FONT_TITLE);
+        FontMetrics fm = g2d.getFontMetrics();
+        int titleWidth = fm.stringWidth(plotTitle);
+        g2d.drawString(plotTitle, (getWidth() - titleWidth) / 2, PADDING_TOP / 2 + fm.getAscent() / 2);
+    }
+}
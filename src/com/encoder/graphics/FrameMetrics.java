@@ -0,0 +1,83 @@
+package com.encoder.graphics;
+
+/**
+ * Timing of the frames a renderer has drawn: how many, how long each took and how
+ * often they came, e.g. to compare on-demand rendering with a continuous animator.
+ * Frames are recorded on the rendering thread and may be read from any other.
+ * Recording is off unless setEnabled(true) or -Dcom.encoder.frameMetrics=true turns it
+ * on, since timing a frame makes the renderer wait for the GPU to finish it.
+ */
+public class FrameMetrics {
+
+    private volatile boolean enabled = Boolean.getBoolean("com.encoder.frameMetrics");
+
+    private long frameCount;
+    private long totalNanos;
+    private long maxNanos;
+    private long lastNanos;
+    private long firstStart;
+
+    synchronized void record(long start, long end) {
+        if (frameCount == 0) {
+            firstStart = start;
+        }
+        long nanos = end - start;
+        frameCount++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        lastNanos = nanos;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized void reset() {
+        frameCount = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        lastNanos = 0;
+    }
+
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    public synchronized double getAverageMillis() {
+        return (frameCount > 0) ? totalNanos / 1e6 / frameCount : 0;
+    }
+
+    public synchronized double getMaxMillis() {
+        return maxNanos / 1e6;
+    }
+
+    public synchronized double getLastMillis() {
+        return lastNanos / 1e6;
+    }
+
+    /**
+     * Frames per second from the first recorded frame until now.
+     */
+    public synchronized double getFramesPerSecond() {
+        long elapsed = System.nanoTime() - firstStart;
+        return (frameCount > 0 && elapsed > 0) ? frameCount * 1e9 / elapsed : 0;
+    }
+
+    /**
+     * Share of the time since the first frame that was spent drawing.
+     */
+    public synchronized double getBusyFraction() {
+        long elapsed = System.nanoTime() - firstStart;
+        return (frameCount > 0 && elapsed > 0) ? (double) totalNanos / elapsed : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d frames, %.2f ms average, %.2f ms max, %.1f fps, %.1f%% busy",
+                frameCount, getAverageMillis(), getMaxMillis(), getFramesPerSecond(), 100 * getBusyFraction());
+    }
+}
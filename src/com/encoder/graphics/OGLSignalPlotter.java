@@ -1,25 +1,129 @@
 package com.encoder.graphics;
 
+import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
 import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
 import com.jogamp.opengl.awt.GLCanvas;
 import com.jogamp.opengl.util.FPSAnimator;
+import com.jogamp.opengl.util.awt.AWTGLReadBufferUtil;
 
 import javax.swing.JFrame;
+import java.awt.image.BufferedImage;
 import java.util.List;
 
+/**
+ * A window showing a signal through OGLSignalRenderer. The plot is drawn on demand:
+ * the canvas redraws when it is exposed or resized and when setSignal changes the data,
+ * so a static signal costs nothing between those events. Live or scrolling data can
+ * switch to continuous animation with setContinuous(true).
+ */
 public class OGLSignalPlotter {
 
-    public static void plot(List<Double> levels, String title) {
-        // Get the default OpenGL profile (e.g., GL2)
+    // Frame rate of continuous animation
+    private static final int LIVE_FPS = 60;
+
+    private final GLCanvas canvas;
+    private final OGLSignalRenderer renderer;
+    private FPSAnimator animator;
+
+    private OGLSignalPlotter(GLCanvas canvas, OGLSignalRenderer renderer) {
+        this.canvas = canvas;
+        this.renderer = renderer;
+    }
+
+    public static OGLSignalPlotter plot(List<Double> levels, String title) {
+        return show(new OGLSignalRenderer(levels), title);
+    }
+
+    /**
+     * Plots the first count levels of a primitive buffer without boxing.
+     */
+    public static OGLSignalPlotter plot(double[] levels, int count, String title) {
+        return show(new OGLSignalRenderer(levels, count), title);
+    }
+
+    /**
+     * Plots a symbol buffer (-1/0/+1) as produced by LineEncoder.
+     */
+    public static OGLSignalPlotter plot(byte[] symbols, int count, String title) {
+        return show(new OGLSignalRenderer(symbols, count), title);
+    }
+
+    /**
+     * Replaces the plotted levels (used as-is, not copied). Redraws once, unless the
+     * plot is animating and picks them up with the next frame anyway.
+     */
+    public void setSignal(double[] levels, int count) {
+        renderer.setSignal(levels, count);
+        if (!isContinuous()) {
+            canvas.repaint();
+        }
+    }
+
+    /**
+     * Redraws at LIVE_FPS while on, for data that changes every frame; off (the
+     * default) redraws only on expose, resize and setSignal.
+     */
+    public synchronized void setContinuous(boolean continuous) {
+        if (continuous == isContinuous()) return;
+        if (continuous) {
+            animator = new FPSAnimator(canvas, LIVE_FPS);
+            animator.start();
+        } else {
+            animator.stop();
+            animator = null;
+        }
+    }
+
+    public synchronized boolean isContinuous() {
+        return animator != null;
+    }
+
+    public FrameMetrics getFrameMetrics() {
+        return renderer.getFrameMetrics();
+    }
+
+    /**
+     * Renders the first count levels into an offscreen framebuffer and reads it back,
+     * without a window, e.g. to check the renderer on a headless machine with Mesa.
+     */
+    public static BufferedImage snapshot(double[] levels, int count, int width, int height) {
+        GLProfile profile = GLProfile.get(GLProfile.GL2ES2);
+        GLCapabilities capabilities = new GLCapabilities(profile);
+        capabilities.setOnscreen(false);
+        GLOffscreenAutoDrawable drawable = GLDrawableFactory.getFactory(profile)
+                .createOffscreenAutoDrawable(null, capabilities, null, width, height);
+        drawable.addGLEventListener(new OGLSignalRenderer(levels, count));
+
+        final AWTGLReadBufferUtil reader = new AWTGLReadBufferUtil(profile, false);
+        final BufferedImage[] image = new BufferedImage[1];
+        try {
+            // Runs after a display, while the context is current
+            drawable.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(GLAutoDrawable glDrawable) {
+                    image[0] = reader.readPixelsToBufferedImage(glDrawable.getGL(), true);
+                    return true;
+                }
+            });
+        } finally {
+            drawable.destroy();
+        }
+        return image[0];
+    }
+
+    private static OGLSignalPlotter show(OGLSignalRenderer renderer, String title) {
+        // The renderer only needs shaders and vertex buffers (GL 2.0 / ES 2.0)
         GLProfile profile = GLProfile.get(GLProfile.GL2ES2);
         GLCapabilities capabilities = new GLCapabilities(profile);
         
         // Create the OpenGL canvas
         GLCanvas glcanvas = new GLCanvas(capabilities);
         
-        // Create our custom renderer and add it
-        OGLSignalRenderer renderer = new OGLSignalRenderer(levels);
+        // Add our custom renderer
         glcanvas.addGLEventListener(renderer);
         glcanvas.setSize(800, 400);
 
@@ -30,17 +134,16 @@ public class OGLSignalPlotter {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setVisible(true);
 
-        // Start the animator
-        // Use FPSAnimator for continuous rendering (good practice)
-        final FPSAnimator animator = new FPSAnimator(glcanvas, 60);
-        animator.start();
-        
+        // No animator: the canvas draws itself when exposed or resized
+        final OGLSignalPlotter plotter = new OGLSignalPlotter(glcanvas, renderer);
+
         // Add a shutdown hook
         frame.addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent windowEvent) {
-                animator.stop();
+                plotter.setContinuous(false);
             }
         });
+        return plotter;
     }
 }
\ No newline at end of file
@@ -1,110 +1,264 @@
 package com.encoder.graphics;
 
-import com.jogamp.opengl.GL2;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
 import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.GLEventListener;
-import com.jogamp.opengl.glu.GLU;
+import com.jogamp.opengl.GLException;
+import java.nio.FloatBuffer;
 import java.util.List;
 
+/**
+ * Draws a signal with a vertex buffer and a small shader program (GL2ES2, so it runs on
+ * any GL 2.0 / ES 2.0 context including Mesa's software renderers). The axes and the
+ * signal, one horizontal line per run of equal levels plus the transitions between
+ * them, are built once into a direct FloatBuffer and uploaded in init; a frame is then
+ * three glDrawArrays(GL_LINES) calls on that buffer. Reshape only sets the viewport and
+ * the projection uniform. New data from setSignal is uploaded at the next frame.
+ * While getFrameMetrics() is enabled every frame is timed into it.
+ */
 public class OGLSignalRenderer implements GLEventListener {
 
-    private List<Double> signalLevels;
-    private GLU glu = new GLU();
+    // Axis vertices at the start of the buffer: the 0V line, then the +1V and -1V lines
+    private static final int AXIS_VERTICES = 6;
+    // Vertical range in levels, with room above and below +1/-1
+    private static final float Y_RANGE = 2.0f;
+
+    // Data coordinates (x in samples, y in levels) to clip space via u_transform
+    private static final String VERTEX_SHADER =
+            "attribute vec2 a_position;\n"
+            + "uniform vec4 u_transform; // xy: scale, zw: offset\n"
+            + "void main() {\n"
+            + "    gl_Position = vec4(a_position * u_transform.xy + u_transform.zw, 0.0, 1.0);\n"
+            + "}\n";
+
+    // Dashed lines skip every other pixel column, as the 0xAAAA line stipple did
+    private static final String FRAGMENT_SHADER =
+            "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "uniform vec4 u_color;\n"
+            + "uniform float u_dashed;\n"
+            + "void main() {\n"
+            + "    if (u_dashed > 0.5 && mod(floor(gl_FragCoord.x), 2.0) > 0.5) discard;\n"
+            + "    gl_FragColor = u_color;\n"
+            + "}\n";
+
+    private double[] signalLevels;
+    private int levelCount;
+    // Set when the levels changed since they were last uploaded; guarded by this
+    private boolean signalChanged = false;
+
+    private final FrameMetrics metrics = new FrameMetrics();
+
+    // GL objects, valid between init and dispose
+    private int program;
+    private final int[] vertexBuffer = new int[1];
+    private int signalVertices;
+    private int transformLocation;
+    private int colorLocation;
+    private int dashedLocation;
 
     public OGLSignalRenderer(List<Double> levels) {
+        this.signalLevels = new double[levels.size()];
+        for (int i = 0; i < signalLevels.length; i++) {
+            signalLevels[i] = levels.get(i);
+        }
+        this.levelCount = signalLevels.length;
+    }
+
+    /**
+     * Renders the first count levels of a primitive buffer (used as-is, not copied).
+     */
+    public OGLSignalRenderer(double[] levels, int count) {
         this.signalLevels = levels;
+        this.levelCount = count;
+    }
+
+    /**
+     * Renders a symbol buffer (-1/0/+1) as produced by LineEncoder.
+     */
+    public OGLSignalRenderer(byte[] symbols, int count) {
+        this.signalLevels = new double[count];
+        for (int i = 0; i < count; i++) {
+            signalLevels[i] = symbols[i];
+        }
+        this.levelCount = count;
+    }
+
+    /**
+     * Replaces the plotted levels with levels[0, count) (used as-is, not copied, so set
+     * it again after changing it). The drawable still has to be asked to redraw.
+     */
+    public synchronized void setSignal(double[] levels, int count) {
+        this.signalLevels = levels;
+        this.levelCount = count;
+        this.signalChanged = true;
+    }
+
+    public FrameMetrics getFrameMetrics() {
+        return metrics;
     }
 
     @Override
     public void init(GLAutoDrawable drawable) {
-        GL2 gl = drawable.getGL().getGL2();
+        GL2ES2 gl = drawable.getGL().getGL2ES2();
         // Set the background color to black
         gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+
+        program = gl.glCreateProgram();
+        int vertexShader = compile(gl, GL2ES2.GL_VERTEX_SHADER, VERTEX_SHADER);
+        int fragmentShader = compile(gl, GL2ES2.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+        gl.glAttachShader(program, vertexShader);
+        gl.glAttachShader(program, fragmentShader);
+        gl.glBindAttribLocation(program, 0, "a_position");
+        gl.glLinkProgram(program);
+        // The program keeps the compiled code
+        gl.glDetachShader(program, vertexShader);
+        gl.glDetachShader(program, fragmentShader);
+        gl.glDeleteShader(vertexShader);
+        gl.glDeleteShader(fragmentShader);
+        int[] status = new int[1];
+        gl.glGetProgramiv(program, GL2ES2.GL_LINK_STATUS, status, 0);
+        if (status[0] == GL.GL_FALSE) {
+            throw new GLException("Cannot link the signal shaders: " + programLog(gl, program));
+        }
+        transformLocation = gl.glGetUniformLocation(program, "u_transform");
+        colorLocation = gl.glGetUniformLocation(program, "u_color");
+        dashedLocation = gl.glGetUniformLocation(program, "u_dashed");
+
+        gl.glGenBuffers(1, vertexBuffer, 0);
+        upload(gl);
     }
 
     @Override
-    public void dispose(GLAutoDrawable drawable) {}
+    public void dispose(GLAutoDrawable drawable) {
+        GL2ES2 gl = drawable.getGL().getGL2ES2();
+        gl.glDeleteBuffers(1, vertexBuffer, 0);
+        gl.glDeleteProgram(program);
+    }
 
     @Override
     public void display(GLAutoDrawable drawable) {
-        GL2 gl = drawable.getGL().getGL2();
+        long start = System.nanoTime();
+        GL2ES2 gl = drawable.getGL().getGL2ES2();
+        synchronized (this) {
+            if (signalChanged) {
+                upload(gl);
+                setTransform(gl);
+            }
+        }
         // Clear the color buffer
-        gl.glClear(GL2.GL_COLOR_BUFFER_BIT);
-        gl.glLoadIdentity(); // Reset the model-view matrix
+        gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+
+        gl.glUseProgram(program);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, vertexBuffer[0]);
+        gl.glEnableVertexAttribArray(0);
+        gl.glVertexAttribPointer(0, 2, GL.GL_FLOAT, false, 0, 0L);
+
+        // X-axis (0V) in white, dotted +1V and -1V helper lines in gray
+        gl.glLineWidth(1.0f);
+        gl.glUniform1f(dashedLocation, 0.0f);
+        gl.glUniform4f(colorLocation, 1.0f, 1.0f, 1.0f, 1.0f);
+        gl.glDrawArrays(GL.GL_LINES, 0, 2);
+        gl.glUniform1f(dashedLocation, 1.0f);
+        gl.glUniform4f(colorLocation, 0.5f, 0.5f, 0.5f, 1.0f);
+        gl.glDrawArrays(GL.GL_LINES, 2, 4);
 
-        drawAxes(gl);
-        drawSignal(gl);
+        // Signal in bright green (oscilloscope)
+        gl.glLineWidth(2.0f);
+        gl.glUniform1f(dashedLocation, 0.0f);
+        gl.glUniform4f(colorLocation, 0.0f, 1.0f, 0.0f, 1.0f);
+        gl.glDrawArrays(GL.GL_LINES, AXIS_VERTICES, signalVertices);
+
+        gl.glDisableVertexAttribArray(0);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+        if (metrics.isEnabled()) {
+            // Wait for the drawing, so the frame time includes it (software GL renders on other threads)
+            gl.glFinish();
+            metrics.record(start, System.nanoTime());
+        }
     }
 
     @Override
     public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
-        GL2 gl = drawable.getGL().getGL2();
-        
+        GL2ES2 gl = drawable.getGL().getGL2ES2();
         gl.glViewport(0, 0, width, height);
-        gl.glMatrixMode(GL2.GL_PROJECTION);
-        gl.glLoadIdentity();
-
-        // Set up the coordinate system
-        // X-axis: 0 to number of levels
-        // Y-axis: -2.0 to +2.0 (to give padding)
-        glu.gluOrtho2D(0.0, signalLevels.size(), -2.0, 2.0);
+        synchronized (this) {
+            setTransform(gl);
+        }
+    }
 
-        gl.glMatrixMode(GL2.GL_MODELVIEW);
-        gl.glLoadIdentity();
+    // X-axis: 0 to number of levels, Y-axis: -2.0 to +2.0 (to give padding)
+    private void setTransform(GL2ES2 gl) {
+        float xScale = 2.0f / Math.max(1, levelCount);
+        gl.glUseProgram(program);
+        gl.glUniform4f(transformLocation, xScale, 1.0f / Y_RANGE, -1.0f, 0.0f);
     }
 
-    private void drawAxes(GL2 gl) {
-        // Draw X-axis (0V)
-        gl.glColor3f(1.0f, 1.0f, 1.0f); // White
-        gl.glBegin(GL2.GL_LINES);
-        gl.glVertex2d(0, 0);
-        gl.glVertex2d(signalLevels.size(), 0);
-        gl.glEnd();
-
-        // Draw dotted helper lines for +1V and -1V
-        gl.glEnable(GL2.GL_LINE_STIPPLE);
-        gl.glLineStipple(1, (short) 0xAAAA); // Dotted pattern
-        gl.glColor3f(0.5f, 0.5f, 0.5f); // Gray
-        
-        gl.glBegin(GL2.GL_LINES);
-        // +1V line
-        gl.glVertex2d(0, 1.0);
-        gl.glVertex2d(signalLevels.size(), 1.0);
-        // -1V line
-        gl.glVertex2d(0, -1.0);
-        gl.glVertex2d(signalLevels.size(), -1.0);
-        gl.glEnd();
-        
-        gl.glDisable(GL2.GL_LINE_STIPPLE);
+    // The vertices only live in the GL buffer; the direct buffer goes after the upload
+    private synchronized void upload(GL2ES2 gl) {
+        FloatBuffer vertices = buildVertices();
+        signalVertices = vertices.limit() / 2 - AXIS_VERTICES;
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, vertexBuffer[0]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) vertices.limit() * Buffers.SIZEOF_FLOAT, vertices, GL.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        signalChanged = false;
     }
 
-    private void drawSignal(GL2 gl) {
-        gl.glColor3f(0.0f, 1.0f, 0.0f); // Bright green (oscilloscope)
-        gl.glLineWidth(2.0f);
-        
-        gl.glBegin(GL2.GL_LINES);
-        
-        double lastY = 0.0;
-        if (!signalLevels.isEmpty()) {
-            lastY = signalLevels.get(0);
+    // x, y pairs for the axes and then the signal, as GL_LINES segments
+    private FloatBuffer buildVertices() {
+        int runs = 0;
+        for (int i = 0; i < levelCount; i++) {
+            if (i == 0 || signalLevels[i] != signalLevels[i - 1]) runs++;
         }
+        // A horizontal line per run and a vertical one between runs
+        int vertexCount = AXIS_VERTICES + 2 * runs + 2 * Math.max(0, runs - 1);
+        FloatBuffer vertices = Buffers.newDirectFloatBuffer(2 * vertexCount);
 
-        for (int x = 0; x < signalLevels.size(); x++) {
-            double y = signalLevels.get(x);
+        vertices.put(0).put(0).put(levelCount).put(0);
+        vertices.put(0).put(1).put(levelCount).put(1);
+        vertices.put(0).put(-1).put(levelCount).put(-1);
 
-            // Draw vertical line for transition
-            if (x > 0 && y != lastY) {
-                gl.glVertex2d(x, lastY);
-                gl.glVertex2d(x, y);
+        int start = 0;
+        for (int i = 1; i <= levelCount; i++) {
+            if (i < levelCount && signalLevels[i] == signalLevels[start]) continue;
+            float level = (float) signalLevels[start];
+            vertices.put(start).put(level).put(i).put(level);
+            if (i < levelCount) {
+                // Transition to the next run
+                vertices.put(i).put(level).put(i).put((float) signalLevels[i]);
             }
-            
-            // Draw horizontal line for the level
-            gl.glVertex2d(x, y);
-            gl.glVertex2d(x + 1, y);
-            
-            lastY = y;
+            start = i;
         }
-        
-        gl.glEnd();
+        vertices.flip();
+        return vertices;
+    }
+
+    private static int compile(GL2ES2 gl, int type, String source) {
+        int shader = gl.glCreateShader(type);
+        gl.glShaderSource(shader, 1, new String[]{source}, new int[]{source.length()}, 0);
+        gl.glCompileShader(shader);
+        int[] status = new int[1];
+        gl.glGetShaderiv(shader, GL2ES2.GL_COMPILE_STATUS, status, 0);
+        if (status[0] == GL.GL_FALSE) {
+            int[] length = new int[1];
+            gl.glGetShaderiv(shader, GL2ES2.GL_INFO_LOG_LENGTH, length, 0);
+            byte[] log = new byte[Math.max(1, length[0])];
+            gl.glGetShaderInfoLog(shader, log.length, length, 0, log, 0);
+            gl.glDeleteShader(shader);
+            throw new GLException("Cannot compile a signal shader: " + new String(log, 0, length[0]));
+        }
+        return shader;
+    }
+
+    private static String programLog(GL2ES2 gl, int program) {
+        int[] length = new int[1];
+        gl.glGetProgramiv(program, GL2ES2.GL_INFO_LOG_LENGTH, length, 0);
+        byte[] log = new byte[Math.max(1, length[0])];
+        gl.glGetProgramInfoLog(program, log.length, length, 0, log, 0);
+        return new String(log, 0, length[0]);
     }
-}
\ No newline at end of file
+}
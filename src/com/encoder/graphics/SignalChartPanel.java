@@ -2,29 +2,90 @@ package com.encoder.graphics;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Collections;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
 import java.util.List;
 
 /**
  * A Swing JPanel that uses Java 2D to draw signal waveforms.
  * This replaces the JOGL-based SignalRenderer and SignalPlotter.
+ *
+ * Digital and analog plots can be zoomed with the mouse wheel around the cursor, panned
+ * by dragging and reset with a double click. Only the visible range is drawn: where it
+ * holds more samples than the chart has pixels it is reduced to a min/max envelope per
+ * pixel column (see ColumnEnvelope), looked up in a SummaryPyramid built once per
+ * signal, and every curve is drawn as one Path2D. Levels are kept as floats, and large
+ * signals come with a pyramid their producer built off the EDT, so painting never
+ * walks the whole signal. Bit labels and clock lines are only
+ * drawn for visible bits and while they fit, so drawing costs O(width) at any zoom
+ * however many samples are plotted. The drawn chart is cached in an image that only
+ * the set methods, the view and resizing invalidate; other repaints (window exposure,
+ * tab switches) just copy it.
  */
 public class SignalChartPanel extends JPanel {
 
-    private List<Double> signalLevels = Collections.emptyList();
+    private float[] signalLevels = new float[0];
+    private int levelCount = 0;
     private String dataString = ""; // Original bits for labels
     private String encodedString = ""; // Encoded bits (might have +, -)
     private String plotTitle = "";
-    private boolean isAnalogDemo = false;
+    private PlotType plotType = PlotType.DIGITAL;
+    private double binWidth; // Spectrum only, in multiples of the bit rate
+    private float[] referenceLevels; // Analog only: the input behind a reconstruction
+    private int referenceCount = 0;
+
+    // The whole chart, rendered once per data set and size and then only blitted
+    private BufferedImage layer;
+    private boolean layerValid = false;
+
+    // Visible part of the signal as fractions of its length: [viewStart, viewStart + viewWidth)
+    private double viewStart = 0;
+    private double viewWidth = 1;
+
+    // Summaries of the levels and the reference, and the envelope of the curve being drawn
+    private SummaryPyramid pyramid = SummaryPyramid.summarize(signalLevels, 0);
+    private SummaryPyramid referencePyramid;
+    private final ColumnEnvelope envelope = new ColumnEnvelope();
+
+    private enum PlotType {
+        DIGITAL, ANALOG, SPECTRUM
+    }
 
     // Colors
     private static final Color COLOR_BACKGROUND = Color.BLACK;
     private static final Color COLOR_AXES = new Color(100, 100, 100);
     private static final Color COLOR_GRID = new Color(70, 70, 70);
     private static final Color COLOR_SIGNAL = new Color(50, 255, 50); // Bright Green
+    private static final Color COLOR_REFERENCE = new Color(255, 170, 60);
     private static final Color COLOR_TEXT = Color.WHITE;
     private static final Color COLOR_BIT_LABEL = Color.CYAN;
 
+    // Fonts and strokes, shared by every paint
+    private static final Font FONT_TITLE = new Font("SansSerif", Font.BOLD, 16);
+    private static final Font FONT_BITS = new Font("Monospaced", Font.BOLD, 14);
+    private static final Font FONT_AXES = new Font("SansSerif", Font.PLAIN, 11);
+    private static final BasicStroke STROKE_THIN = new BasicStroke(1.0f);
+    private static final BasicStroke STROKE_SIGNAL = new BasicStroke(2.0f);
+    private static final BasicStroke STROKE_SPECTRUM = new BasicStroke(1.5f);
+    private static final BasicStroke STROKE_DOTTED = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{3, 5}, 0);
+
+    // Clock lines closer than this many pixels are left out
+    private static final int MIN_CLOCK_SPACING = 4;
+    // Held samples narrower than this are filled as a pixel-aligned envelope instead of
+    // stroked; polylines switch once there are more points than pixels
+    private static final int MIN_STROKED_SAMPLE_WIDTH = 4;
+
+    // View width change per mouse wheel notch, and the fewest samples a view may show
+    private static final double ZOOM_STEP = 1.25;
+    private static final int MIN_VISIBLE_SAMPLES = 4;
+
+    // Spectrum plots show this many dB below the peak
+    private static final double SPECTRUM_RANGE_DB = 60.0;
+
     // Padding
     private static final int PADDING_TOP = 40;
     private static final int PADDING_BOTTOM = 40;
@@ -33,44 +94,269 @@ public class SignalChartPanel extends JPanel {
 
     public SignalChartPanel() {
         setBackground(COLOR_BACKGROUND);
+
+        MouseAdapter navigation = new MouseAdapter() {
+            private int dragX;
+            private double dragStart;
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(e.getX(), Math.pow(ZOOM_STEP, e.getPreciseWheelRotation()));
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragX = e.getX();
+                dragStart = viewStart;
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                int chartWidth = getWidth() - PADDING_LEFT - PADDING_RIGHT;
+                if (chartWidth > 0) {
+                    setView(dragStart - (double) (e.getX() - dragX) / chartWidth * viewWidth, viewWidth);
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    setView(0, 1);
+                }
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
     }
 
     /**
      * Sets the data for a digital signal plot.
      */
     public void setDigitalSignal(List<Double> levels, String dataString, String encodedString, String title) {
+        float[] array = toFloats(levels);
+        setDigitalSignal(array, array.length, SummaryPyramid.summarize(array, array.length), dataString, encodedString, title);
+    }
+
+    /**
+     * Sets the data for a digital signal plot from the first count entries of a primitive
+     * level buffer. They are copied and summarized on the calling thread; large signals
+     * should come as floats with their pyramid.
+     */
+    public void setDigitalSignal(double[] levels, int count, String dataString, String encodedString, String title) {
+        float[] array = toFloats(levels, count);
+        setDigitalSignal(array, count, SummaryPyramid.summarize(array, count), dataString, encodedString, title);
+    }
+
+    /**
+     * Sets the data for a digital signal plot from levels[0, count), summarized by pyramid
+     * at least that far (e.g. built by the worker that produced the levels). The array is
+     * used as-is, not copied.
+     */
+    public void setDigitalSignal(float[] levels, int count, SummaryPyramid pyramid, String dataString, String encodedString, String title) {
+        checkSummary(levels, count, pyramid);
         this.signalLevels = levels;
+        this.levelCount = count;
+        this.pyramid = pyramid;
         this.dataString = dataString;
         this.encodedString = encodedString;
         this.plotTitle = title;
-        this.isAnalogDemo = false;
+        this.plotType = PlotType.DIGITAL;
+        resetView();
         repaint(); // Trigger a redraw
     }
 
+    /**
+     * Extends the digital plot to levels[0, count) of the buffer it already shows, e.g.
+     * while a worker is still filling it; the worker extends the pyramid first. The view
+     * stays on the samples it showed, or on the whole signal if it showed all of it.
+     */
+    public void appendDigitalSignal(int count, String dataString, String encodedString) {
+        if (plotType != PlotType.DIGITAL || count < levelCount) {
+            throw new IllegalStateException("Can only extend the digital signal shown, from " + levelCount + " to " + count + " levels");
+        }
+        checkSummary(signalLevels, count, pyramid);
+        int previous = levelCount;
+        this.levelCount = count;
+        if (viewWidth < 1 && count > 0) {
+            double scale = (double) previous / count;
+            viewStart *= scale;
+            viewWidth = clampViewWidth(viewWidth * scale);
+        }
+        this.dataString = dataString;
+        this.encodedString = encodedString;
+        layerValid = false;
+        repaint();
+    }
+
+    /**
+     * Sets the data for a digital signal plot from a symbol buffer (-1/0/+1),
+     * as produced by LineEncoder.encode(data, scheme, byte[], offset).
+     */
+    public void setDigitalSignal(byte[] symbols, int count, String dataString, String encodedString, String title) {
+        float[] levels = new float[count];
+        for (int i = 0; i < count; i++) {
+            levels[i] = symbols[i];
+        }
+        setDigitalSignal(levels, count, SummaryPyramid.summarize(levels, count), dataString, encodedString, title);
+    }
+
     /**
      * Sets the data for an analog demo plot.
      */
     public void setAnalogSignal(List<Double> levels, String title) {
+        float[] array = toFloats(levels);
+        setAnalogSignal(array, array.length, null, 0, title);
+    }
+
+    /**
+     * Sets the data for an analog plot from a primitive sample buffer.
+     */
+    public void setAnalogSignal(double[] levels, int count, String title) {
+        setAnalogSignal(toFloats(levels, count), count, null, 0, title);
+    }
+
+    /**
+     * Sets the data for a sampled analog plot: levels[0, count) are drawn held for one
+     * sample each (e.g. what a PCM/DM receiver reconstructs) over the input
+     * reference[0, referenceCount), which spans the same time at any resolution.
+     * Both are copied and summarized on the calling thread.
+     */
+    public void setAnalogSignal(double[] levels, int count, double[] reference, int referenceCount, String title) {
+        setAnalogSignal(toFloats(levels, count), count,
+                (reference != null) ? toFloats(reference, referenceCount) : null, referenceCount, title);
+    }
+
+    private void setAnalogSignal(float[] levels, int count, float[] reference, int referenceCount, String title) {
         this.signalLevels = levels;
+        this.levelCount = count;
+        this.pyramid = SummaryPyramid.summarize(levels, count);
+        this.referenceLevels = reference;
+        this.referenceCount = (reference != null) ? referenceCount : 0;
+        this.referencePyramid = (reference != null) ? SummaryPyramid.summarize(reference, referenceCount) : null;
         this.dataString = ""; // Not used for analog
         this.encodedString = "";
         this.plotTitle = title;
-        this.isAnalogDemo = true;
+        this.plotType = PlotType.ANALOG;
+        resetView();
         repaint();
     }
 
+    /**
+     * Sets the data for a spectrum plot: a power spectral density per frequency bin,
+     * e.g. from WelchPsd.density(), with bins binWidth apart in multiples of the bit rate.
+     */
+    public void setSpectrum(double[] density, int count, double binWidth, String title) {
+        this.signalLevels = toFloats(density, count);
+        this.levelCount = count;
+        this.binWidth = binWidth;
+        this.dataString = "";
+        this.encodedString = "";
+        this.plotTitle = title;
+        this.plotType = PlotType.SPECTRUM;
+        resetView();
+        repaint();
+    }
+
+    // Back to the whole signal, for new data
+    private void resetView() {
+        viewStart = 0;
+        viewWidth = 1;
+        layerValid = false;
+    }
+
+    // Scales the view width by factor, keeping the point under x in place
+    private void zoom(int x, double factor) {
+        int chartWidth = getWidth() - PADDING_LEFT - PADDING_RIGHT;
+        if (chartWidth <= 0) return;
+        double anchor = Math.max(0, Math.min(1, (double) (x - PADDING_LEFT) / chartWidth));
+        double width = clampViewWidth(viewWidth * factor);
+        setView(viewStart + anchor * (viewWidth - width), width);
+    }
+
+    private void setView(double start, double width) {
+        if (plotType == PlotType.SPECTRUM) return;
+        width = clampViewWidth(width);
+        start = Math.max(0, Math.min(1 - width, start));
+        if (start == viewStart && width == viewWidth) return;
+        viewStart = start;
+        viewWidth = width;
+        layerValid = false;
+        repaint();
+    }
+
+    private double clampViewWidth(double width) {
+        double narrowest = Math.min(1, (double) MIN_VISIBLE_SAMPLES / Math.max(1, levelCount));
+        return Math.max(narrowest, Math.min(1, width));
+    }
+
+    private static void checkSummary(float[] levels, int count, SummaryPyramid pyramid) {
+        if (pyramid.getLevels() != levels || pyramid.getCount() < count) {
+            throw new IllegalArgumentException("The pyramid does not summarize the first " + count + " levels");
+        }
+    }
+
+    private static float[] toFloats(List<Double> levels) {
+        float[] array = new float[levels.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = levels.get(i).floatValue();
+        }
+        return array;
+    }
+
+    private static float[] toFloats(double[] levels, int count) {
+        float[] array = new float[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = (float) levels[i];
+        }
+        return array;
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
 
+        // The layer is kept at device resolution, so HiDPI scaling does not blur it
+        AffineTransform transform = g2d.getTransform();
+        int width = (int) Math.ceil(getWidth() * transform.getScaleX());
+        int height = (int) Math.ceil(getHeight() * transform.getScaleY());
+        if (width <= 0 || height <= 0) return;
+
+        if (layer == null || layer.getWidth() != width || layer.getHeight() != height) {
+            GraphicsConfiguration configuration = getGraphicsConfiguration();
+            layer = (configuration != null)
+                    ? configuration.createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            layerValid = false;
+        }
+        if (!layerValid) {
+            Graphics2D layerGraphics = layer.createGraphics();
+            layerGraphics.scale(transform.getScaleX(), transform.getScaleY());
+            layerGraphics.setColor(getBackground());
+            layerGraphics.fillRect(0, 0, getWidth(), getHeight());
+            drawChart(layerGraphics);
+            layerGraphics.dispose();
+            layerValid = true;
+        }
+        g2d.drawImage(layer, 0, 0, getWidth(), getHeight(), null);
+    }
+
+    // Everything the panel shows; only runs when the cached layer is out of date
+    private void drawChart(Graphics2D g2d) {
         // Enable anti-aliasing for smooth lines
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        if (isAnalogDemo) {
-            drawAnalogDemo(g2d);
-        } else {
-            drawDigitalSignal(g2d);
+        switch (plotType) {
+            case ANALOG:
+                drawAnalogDemo(g2d);
+                break;
+            case SPECTRUM:
+                drawSpectrum(g2d);
+                break;
+            default:
+                drawDigitalSignal(g2d);
+                break;
         }
 
         drawTitle(g2d);
@@ -80,14 +366,14 @@ public class SignalChartPanel extends JPanel {
         if (plotTitle == null || plotTitle.isEmpty()) return;
 
         g2d.setColor(COLOR_TEXT);
-        g2d.setFont(new Font("SansSerif", Font.BOLD, 16));
+        g2d.setFont(FONT_TITLE);
         FontMetrics fm = g2d.getFontMetrics();
         int titleWidth = fm.stringWidth(plotTitle);
         g2d.drawString(plotTitle, (getWidth() - titleWidth) / 2, PADDING_TOP / 2 + fm.getAscent() / 2);
     }
 
     private void drawAnalogDemo(Graphics2D g2d) {
-        if (signalLevels == null || signalLevels.isEmpty()) return;
+        if (signalLevels == null || levelCount == 0) return;
 
         int panelWidth = getWidth();
         int panelHeight = getHeight();
@@ -102,27 +388,163 @@ public class SignalChartPanel extends JPanel {
         double yAmplitude = chartHeight / (yMax * 2.0);
 
         g2d.setColor(COLOR_AXES);
-        g2d.setStroke(new BasicStroke(1.0f));
+        g2d.setStroke(STROKE_THIN);
         g2d.drawLine(PADDING_LEFT, yMid, PADDING_LEFT + chartWidth, yMid); // X-Axis (0V)
         g2d.drawLine(PADDING_LEFT, PADDING_TOP, PADDING_LEFT, PADDING_TOP + chartHeight); // Y-Axis
 
-        // --- Draw Signal ---
-        g2d.setColor(COLOR_SIGNAL);
-        g2d.setStroke(new BasicStroke(2.0f));
+        Shape clip = g2d.getClip();
+        g2d.clipRect(PADDING_LEFT, 0, chartWidth, panelHeight);
+        if (referenceCount > 0) {
+            // Input underneath, each reconstructed sample held until the next one
+            g2d.setColor(COLOR_REFERENCE);
+            drawPolyline(g2d, referenceLevels, referenceCount, referencePyramid, STROKE_THIN, chartWidth, yMid, yAmplitude);
 
-        double xStep = (double) chartWidth / (signalLevels.size() - 1);
+            g2d.setColor(COLOR_SIGNAL);
+            drawHeldLevels(g2d, STROKE_SIGNAL, chartWidth, yMid, yAmplitude);
+        } else {
+            // --- Draw Signal ---
+            g2d.setColor(COLOR_SIGNAL);
+            drawPolyline(g2d, signalLevels, levelCount, pyramid, STROKE_SIGNAL, chartWidth, yMid, yAmplitude);
+        }
+        g2d.setClip(clip);
+    }
+
+    // The visible part of levels[0, count) joined point to point, the points spread
+    // evenly over the whole signal, or its envelope when there are more points than pixels
+    private void drawPolyline(Graphics2D g2d, float[] levels, int count, SummaryPyramid summary,
+                              BasicStroke stroke, int chartWidth, int yMid, double yScale) {
+        if (count < 2) return;
+        // Visible span in points, and the points that reach into it
+        double first = viewStart * (count - 1);
+        double last = (viewStart + viewWidth) * (count - 1);
+        int from = (int) Math.floor(first);
+        int to = Math.min(count - 1, (int) Math.ceil(last));
+        double xStep = chartWidth / (last - first);
+        double x0 = PADDING_LEFT + (from - first) * xStep;
+
+        if (xStep < 1) {
+            int columns = (int) Math.min(to - from + 1, Math.ceil((to - from) * xStep));
+            envelope.compute(summary, from, to + 1, columns);
+            fillBand(g2d, envelope, stroke, x0, (to - from) * xStep, yMid, yScale);
+            return;
+        }
+        Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO, to - from + 1);
+        path.moveTo((float) x0, (float) (yMid - levels[from] * yScale));
+        for (int i = from + 1; i <= to; i++) {
+            path.lineTo((float) (x0 + (i - from) * xStep), (float) (yMid - levels[i] * yScale));
+        }
+        g2d.setStroke(stroke);
+        g2d.draw(path);
+    }
 
-        for (int i = 0; i < signalLevels.size() - 1; i++) {
-            int x1 = PADDING_LEFT + (int) (i * xStep);
-            int y1 = yMid - (int) (signalLevels.get(i) * yAmplitude);
-            int x2 = PADDING_LEFT + (int) ((i + 1) * xStep);
-            int y2 = yMid - (int) (signalLevels.get(i + 1) * yAmplitude);
-            g2d.drawLine(x1, y1, x2, y2);
+    // The visible plotted levels, each held for its share of the signal, or their
+    // envelope when the samples are narrower than MIN_STROKED_SAMPLE_WIDTH
+    private void drawHeldLevels(Graphics2D g2d, BasicStroke stroke, int chartWidth, int yMid, double yScale) {
+        double first = viewStart * levelCount;
+        double last = (viewStart + viewWidth) * levelCount;
+        int from = (int) Math.floor(first);
+        int to = Math.min(levelCount, (int) Math.ceil(last));
+        double xStep = chartWidth / (last - first);
+        double x0 = PADDING_LEFT + (from - first) * xStep;
+
+        if (xStep < MIN_STROKED_SAMPLE_WIDTH) {
+            int columns = (int) Math.min(to - from, Math.ceil((to - from) * xStep));
+            envelope.compute(pyramid, from, to, columns);
+            fillBand(g2d, envelope, stroke, x0, (to - from) * xStep, yMid, yScale);
+            return;
+        }
+        Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO, 2 * (to - from) + 1);
+        path.moveTo((float) x0, (float) (yMid - signalLevels[from] * yScale));
+        for (int i = from; i < to; i++) {
+            float y = (float) (yMid - signalLevels[i] * yScale);
+            path.lineTo((float) (x0 + (i - from) * xStep), y); // Transition from the last level
+            path.lineTo((float) (x0 + (i - from + 1) * xStep), y);
         }
+        g2d.setStroke(stroke);
+        g2d.draw(path);
+    }
+
+    // The envelope, spread over width pixels from x0, is pixel-aligned, so it is filled
+    // without antialiasing, which is also much cheaper than stroking it
+    private static void fillBand(Graphics2D g2d, ColumnEnvelope envelope, BasicStroke stroke, double x0, double width,
+                                 int yMid, double yScale) {
+        Path2D.Float band = new Path2D.Float(Path2D.WIND_NON_ZERO, 8 * envelope.getColumns() + 1);
+        envelope.appendBand(band, x0, width / envelope.getColumns(), yMid, yScale, stroke.getLineWidth() / 2);
+        Object antialiasing = g2d.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2d.fill(band);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+    }
+
+    private void drawSpectrum(Graphics2D g2d) {
+        if (signalLevels == null || levelCount < 2) return;
+
+        int panelWidth = getWidth();
+        int panelHeight = getHeight();
+        int chartWidth = panelWidth - PADDING_LEFT - PADDING_RIGHT;
+        int chartHeight = panelHeight - PADDING_TOP - PADDING_BOTTOM;
+
+        if (chartWidth <= 0 || chartHeight <= 0) return;
+
+        // --- Y-axis in dB, SPECTRUM_RANGE_DB below the peak rounded up to 10 dB ---
+        double peak = 0;
+        for (int i = 0; i < levelCount; i++) {
+            peak = Math.max(peak, signalLevels[i]);
+        }
+        if (peak <= 0) return;
+        double topDb = Math.ceil(10 * Math.log10(peak) / 10) * 10;
+        double bottomDb = topDb - SPECTRUM_RANGE_DB;
+        double yScale = chartHeight / SPECTRUM_RANGE_DB;
+
+        g2d.setFont(FONT_AXES);
+
+        for (double db = topDb; db >= bottomDb; db -= 10) {
+            int y = PADDING_TOP + (int) ((topDb - db) * yScale);
+            g2d.setColor(COLOR_GRID);
+            g2d.setStroke(STROKE_DOTTED);
+            g2d.drawLine(PADDING_LEFT, y, PADDING_LEFT + chartWidth, y);
+            g2d.setColor(COLOR_AXES);
+            g2d.drawString(String.format("%.0f", db), PADDING_LEFT - 30, y + 4);
+        }
+
+        // --- X-axis in multiples of the bit rate, a line every half ---
+        double maxFrequency = (levelCount - 1) * binWidth;
+        double xScale = chartWidth / maxFrequency;
+        int yBottom = PADDING_TOP + chartHeight;
+        for (double f = 0; f <= maxFrequency; f += 0.5) {
+            int x = PADDING_LEFT + (int) (f * xScale);
+            g2d.setColor(COLOR_GRID);
+            g2d.setStroke(STROKE_DOTTED);
+            g2d.drawLine(x, PADDING_TOP, x, yBottom);
+            g2d.setColor(COLOR_AXES);
+            g2d.drawString(String.format("%.1f", f), x - 8, yBottom + 15);
+        }
+        g2d.drawString("f / bit rate", PADDING_LEFT + chartWidth - 60, yBottom + 30);
+
+        g2d.setColor(COLOR_AXES);
+        g2d.setStroke(STROKE_THIN);
+        g2d.drawLine(PADDING_LEFT, yBottom, PADDING_LEFT + chartWidth, yBottom);
+        g2d.drawLine(PADDING_LEFT, PADDING_TOP, PADDING_LEFT, yBottom);
+
+        // --- Draw Density ---
+        g2d.setColor(COLOR_SIGNAL);
+        g2d.setStroke(STROKE_SPECTRUM);
+        Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO, levelCount);
+        for (int i = 0; i < levelCount; i++) {
+            double db = (signalLevels[i] > 0) ? 10 * Math.log10(signalLevels[i]) : bottomDb;
+            float x = (float) (PADDING_LEFT + i * binWidth * xScale);
+            float y = (float) (PADDING_TOP + (topDb - Math.max(db, bottomDb)) * yScale);
+            if (i == 0) {
+                path.moveTo(x, y);
+            } else {
+                path.lineTo(x, y);
+            }
+        }
+        g2d.draw(path);
     }
 
     private void drawDigitalSignal(Graphics2D g2d) {
-        if (signalLevels == null || signalLevels.isEmpty() || dataString == null) return;
+        if (signalLevels == null || levelCount == 0 || dataString == null) return;
 
         int panelWidth = getWidth();
         int panelHeight = getHeight();
@@ -137,18 +559,15 @@ public class SignalChartPanel extends JPanel {
         double yMaxVoltage = 1.5;
         double yAmplitude = (chartHeight / (yMaxVoltage * 2.0));
 
-        // Dotted stroke
-        Stroke dottedStroke = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{3, 5}, 0);
-
         // 0V Line (X-Axis)
         g2d.setColor(COLOR_AXES);
-        g2d.setStroke(new BasicStroke(1.0f));
+        g2d.setStroke(STROKE_THIN);
         g2d.drawLine(PADDING_LEFT, yMid, PADDING_LEFT + chartWidth, yMid);
         g2d.drawString(" 0V", PADDING_LEFT - 25, yMid + 5);
 
         // +1V Line
         g2d.setColor(COLOR_GRID);
-        g2d.setStroke(dottedStroke);
+        g2d.setStroke(STROKE_DOTTED);
         int yPlus1 = yMid - (int) (1.0 * yAmplitude);
         g2d.drawLine(PADDING_LEFT, yPlus1, PADDING_LEFT + chartWidth, yPlus1);
         g2d.setColor(COLOR_AXES);
@@ -162,56 +581,44 @@ public class SignalChartPanel extends JPanel {
         g2d.drawString("-1V", PADDING_LEFT - 25, yMinus1 + 5);
 
         // --- Draw Bit Labels and Clock Lines ---
-        g2d.setFont(new Font("Monospaced", Font.BOLD, 14));
+        g2d.setFont(FONT_BITS);
         FontMetrics fm = g2d.getFontMetrics();
 
         // Use original dataString length for bit divisions
-        double bitWidth = (double) chartWidth / dataString.length();
-
-        for (int i = 0; i < dataString.length(); i++) {
-            int x_start = PADDING_LEFT + (int) (i * bitWidth);
-            int x_mid = x_start + (int) (bitWidth / 2);
+        int bitCount = dataString.length();
+        double bitWidth = chartWidth / (bitCount * viewWidth);
+        double firstBit = viewStart * bitCount;
+        // Labels only while a glyph fits in a bit, clock lines while they stay apart
+        boolean labels = bitWidth >= fm.charWidth('0') + 2;
+        boolean clockLines = bitWidth >= MIN_CLOCK_SPACING;
+
+        // Only the bits in view
+        int lastBit = Math.min(bitCount, (int) Math.ceil((viewStart + viewWidth) * bitCount));
+        for (int i = (int) firstBit; (labels || clockLines) && i < lastBit; i++) {
+            int x_start = PADDING_LEFT + (int) Math.floor((i - firstBit) * bitWidth);
+            int x_mid = PADDING_LEFT + (int) Math.floor((i + 0.5 - firstBit) * bitWidth);
 
             // Draw bit label
-            String bit = String.valueOf(dataString.charAt(i));
-            int bitTextWidth = fm.stringWidth(bit);
-            g2d.setColor(COLOR_BIT_LABEL);
-            g2d.drawString(bit, x_mid - bitTextWidth / 2, PADDING_TOP - 10);
+            if (labels && x_mid >= PADDING_LEFT && x_mid <= PADDING_LEFT + chartWidth) {
+                String bit = String.valueOf(dataString.charAt(i));
+                int bitTextWidth = fm.stringWidth(bit);
+                g2d.setColor(COLOR_BIT_LABEL);
+                g2d.drawString(bit, x_mid - bitTextWidth / 2, PADDING_TOP - 10);
+            }
 
             // Draw vertical clock line
             g2d.setColor(COLOR_GRID);
-            g2d.setStroke(dottedStroke);
-            if (i > 0) {
+            g2d.setStroke(STROKE_DOTTED);
+            if (clockLines && x_start > PADDING_LEFT) {
                 g2d.drawLine(x_start, PADDING_TOP, x_start, PADDING_TOP + chartHeight);
             }
         }
 
         // --- Draw Signal ---
+        Shape clip = g2d.getClip();
+        g2d.clipRect(PADDING_LEFT, 0, chartWidth, panelHeight);
         g2d.setColor(COLOR_SIGNAL);
-        g2d.setStroke(new BasicStroke(2.0f));
-
-        // Use signalLevels length for signal drawing
-        double xStep = (double) chartWidth / signalLevels.size();
-
-        double lastY = signalLevels.get(0);
-        int y_last_draw = yMid - (int) (lastY * yAmplitude);
-
-        for (int i = 0; i < signalLevels.size(); i++) {
-            double y = signalLevels.get(i);
-            int y_draw = yMid - (int) (y * yAmplitude);
-            int x_start = PADDING_LEFT + (int) (i * xStep);
-            int x_end = PADDING_LEFT + (int) ((i + 1) * xStep);
-
-            // Draw vertical line for transition
-            if (y != lastY) {
-                g2d.drawLine(x_start, y_last_draw, x_start, y_draw);
-            }
-
-            // Draw horizontal line for the level
-            g2d.drawLine(x_start, y_draw, x_end, y_draw);
-
-            lastY = y;
-            y_last_draw = y_draw;
-        }
+        drawHeldLevels(g2d, STROKE_SIGNAL, chartWidth, yMid, yAmplitude);
+        g2d.setClip(clip);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.encoder.graphics;
+
+/**
+ * Min/max summary of a level buffer at every power-of-two scale, for zooming into long
+ * signals. Level k holds the extremes of blocks of 2^(k + LEAF_SHIFT) samples, each
+ * entry summarizing two entries of the level below, so the levels together take about
+ * a quarter of a float per sample. The extremes of any range then come from at most two
+ * blocks per level plus the unaligned ends, in O(log n) however long the range is.
+ *
+ * A pyramid belongs to one buffer and is sized for all of it up front, so it can be
+ * built, or extended while the buffer fills, on a worker thread and handed to a
+ * SignalChartPanel. Extending never moves what is already summarized, and getCount()
+ * publishes it: the panel may draw the first getCount() levels while the worker
+ * extends past them.
+ */
+public final class SummaryPyramid {
+
+    // Blocks of the first level; ranges shorter than this are scanned directly
+    private static final int LEAF_SHIFT = 4;
+    private static final int LEAF_MASK = (1 << LEAF_SHIFT) - 1;
+
+    private final float[] levels;
+    private final float[][] min;
+    private final float[][] max;
+    private volatile int count;
+
+    // Result of the last query
+    private double low;
+    private double high;
+
+    /**
+     * An empty summary of levels, with room for all of it.
+     */
+    public SummaryPyramid(float[] levels) {
+        this.levels = levels;
+        int blocks = (levels.length + LEAF_MASK) >>> LEAF_SHIFT;
+        int depth = 1;
+        for (int n = blocks; n > 1; n = (n + 1) / 2) {
+            depth++;
+        }
+        min = new float[depth][];
+        max = new float[depth][];
+        for (int k = 0, n = blocks; k < depth; k++, n = (n + 1) / 2) {
+            min[k] = new float[n];
+            max[k] = new float[n];
+        }
+    }
+
+    /**
+     * Summarizes levels[0, count) in one go.
+     */
+    public static SummaryPyramid summarize(float[] levels, int count) {
+        SummaryPyramid pyramid = new SummaryPyramid(levels);
+        pyramid.extend(count);
+        return pyramid;
+    }
+
+    /**
+     * Extends the summary from levels[0, getCount()) to levels[0, count), e.g. as a
+     * worker fills the buffer. Only the blocks from the old end on are recomputed, so
+     * growing a signal chunk by chunk costs O(n) in total. Call from one thread at a time.
+     */
+    public void extend(int count) {
+        if (count < this.count || count > levels.length) {
+            throw new IllegalArgumentException("Cannot extend from " + this.count + " to " + count
+                    + " levels in a buffer of " + levels.length);
+        }
+        int fromBlock = this.count >>> LEAF_SHIFT;
+        int blocks = (count + LEAF_MASK) >>> LEAF_SHIFT;
+
+        for (int b = fromBlock; b < blocks; b++) {
+            int start = b << LEAF_SHIFT;
+            int end = Math.min(count, start + LEAF_MASK + 1);
+            float lo = levels[start];
+            float hi = lo;
+            for (int i = start + 1; i < end; i++) {
+                float level = levels[i];
+                if (level < lo) lo = level;
+                if (level > hi) hi = level;
+            }
+            min[0][b] = lo;
+            max[0][b] = hi;
+        }
+        for (int k = 1, n = blocks; k < min.length && n > 1; k++) {
+            int below = n;
+            n = (n + 1) / 2;
+            for (int i = fromBlock >>> k; i < n; i++) {
+                int right = Math.min(2 * i + 1, below - 1); // The last block may have no pair
+                min[k][i] = Math.min(min[k - 1][2 * i], min[k - 1][right]);
+                max[k][i] = Math.max(max[k - 1][2 * i], max[k - 1][right]);
+            }
+        }
+        // Publishes the entries above to threads that read the count
+        this.count = count;
+    }
+
+    /**
+     * Number of levels summarized so far.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    float[] getLevels() {
+        return levels;
+    }
+
+    /**
+     * Finds the extremes of levels[from, to), which must not be empty and must lie in
+     * the summarized part; read them with getLow() and getHigh().
+     */
+    void query(int from, int to) {
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+        // Unaligned ends sample by sample
+        for (; from < to && (from & LEAF_MASK) != 0; from++) {
+            double level = levels[from];
+            if (level < lo) lo = level;
+            if (level > hi) hi = level;
+        }
+        for (; to > from && (to & LEAF_MASK) != 0; to--) {
+            double level = levels[to - 1];
+            if (level < lo) lo = level;
+            if (level > hi) hi = level;
+        }
+        // Whole blocks [i, j), climbing a level whenever both ends are on a pair boundary
+        int i = from >>> LEAF_SHIFT;
+        int j = to >>> LEAF_SHIFT;
+        for (int k = 0; i < j; k++, i >>>= 1, j >>>= 1) {
+            if ((i & 1) != 0) {
+                lo = Math.min(lo, min[k][i]);
+                hi = Math.max(hi, max[k][i]);
+                i++;
+            }
+            if ((j & 1) != 0) {
+                j--;
+                lo = Math.min(lo, min[k][j]);
+                hi = Math.max(hi, max[k][j]);
+            }
+        }
+        this.low = lo;
+        this.high = hi;
+    }
+
+    double getLow() {
+        return low;
+    }
+
+    double getHigh() {
+        return high;
+    }
+}